@@ -25,16 +25,18 @@ package com.ray3k.skincomposer;
 
 import com.badlogic.gdx.Graphics;
 import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.g2d.PixmapPacker;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeBitmapFontData;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
 
 import java.io.File;
 import java.util.List;
 
 public interface DesktopWorker {
     void texturePack(Array<FileHandle> handles, FileHandle localFile, FileHandle targetFile, FileHandle settingsFile);
-    void packFontImages(Array<FileHandle> files, FileHandle saveFile);
+    void packFontImages(ObjectMap<String, Pixmap> images, FileHandle saveFile);
     void sizeWindowToFit(int maxWidth, int maxHeight, int displayBorder, Graphics graphics);
     void centerWindow(Graphics graphics);
     void addFilesDroppedListener(FilesDroppedListener filesDroppedListener);
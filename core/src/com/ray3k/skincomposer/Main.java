@@ -334,6 +334,9 @@ public class Main extends ApplicationAdapter {
 
     @Override
     public void dispose() {
+        //the application only exits after the changes have been saved or discarded
+        projectData.getEditJournal().stop();
+        projectData.finishSaving();
         stage.dispose();
         skin.dispose();
     }
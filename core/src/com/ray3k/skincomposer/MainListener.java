@@ -303,11 +303,11 @@ public class MainListener extends RootTableListener {
         Runnable runnable = () -> {
             String defaultPath = projectData.getLastOpenSavePath();
 
-            File file = desktopWorker.openDialog("Open Skin Composer file...", defaultPath, "scmp", "Skin Composer files");
+            File file = desktopWorker.openDialog("Open Skin Composer file...", defaultPath, "scmp," + BinaryProjectFormat.EXTENSION, "Skin Composer files");
             if (file != null) {
+                FileHandle fileHandle = new FileHandle(file);
+                if (!projectData.load(fileHandle, dialogFactory::showLoadingProgress)) return;
                 Gdx.app.postRunnable(() -> {
-                    FileHandle fileHandle = new FileHandle(file);
-                    projectData.load(fileHandle);
                     Array<DrawableData> drawableErrors = projectData.verifyDrawablePaths();
                     Array<FontData> fontErrors = projectData.verifyFontPaths();
                     var freeTypeFontErrors = projectData.verifyFreeTypeFontPaths();
@@ -341,7 +341,7 @@ public class MainListener extends RootTableListener {
                     + "\nAll unsaved changes will be lost.",
                     (int selection) -> {
                         if (selection == 0) {
-                            saveFile(runnable);
+                            saveFile(() -> dialogFactory.showDialogLoading(runnable));
                         } else if (selection == 1) {
                             dialogFactory.showDialogLoading(runnable);
                         }
@@ -366,8 +366,8 @@ public class MainListener extends RootTableListener {
     public void openFile(FileHandle fileHandle) {
         Runnable runnable = () -> {
             if (fileHandle != null) {
+                if (!projectData.load(fileHandle, dialogFactory::showLoadingProgress)) return;
                 Gdx.app.postRunnable(() -> {
-                    projectData.load(fileHandle);
                     Array<DrawableData> drawableErrors = projectData.verifyDrawablePaths();
                     Array<FontData> fontErrors = projectData.verifyFontPaths();
                     var freeTypeFontErrors = projectData.verifyFreeTypeFontPaths();
@@ -401,7 +401,7 @@ public class MainListener extends RootTableListener {
                     + "\nAll unsaved changes will be lost.",
                     (int selection) -> {
                         if (selection == 0) {
-                            saveFile(runnable);
+                            saveFile(() -> dialogFactory.showDialogLoading(runnable));
                         } else if (selection == 1) {
                             dialogFactory.showDialogLoading(runnable);
                         }
@@ -425,13 +425,7 @@ public class MainListener extends RootTableListener {
     
     public void saveFile(Runnable runnable) {
         if (projectData.getSaveFile() != null && projectData.getSaveFile().type() != Files.FileType.Local) {
-            
-            dialogFactory.showDialogLoading(() -> {
-                projectData.save();
-                if (runnable != null) {
-                    runnable.run();
-                }
-            });
+            projectData.save(projectData.getSaveFile(), runnable);
         } else {
             saveAsFile(runnable);
         }
@@ -441,18 +435,15 @@ public class MainListener extends RootTableListener {
         dialogFactory.showDialogLoading(() -> {
             String defaultPath = projectData.getLastOpenSavePath();
 
-            File file = desktopWorker.saveDialog("Save Skin Composer file as...", defaultPath, "scmp", "Skin Composer files");
+            File file = desktopWorker.saveDialog("Save Skin Composer file as...", defaultPath, "scmp," + BinaryProjectFormat.EXTENSION, "Skin Composer files");
             if (file != null) {
                 Gdx.app.postRunnable(() -> {
                     FileHandle fileHandle = new FileHandle(file);
-                    if (fileHandle.extension() == null || !fileHandle.extension().equals(".scmp")) {
+                    if (!fileHandle.extension().equals("scmp") && !BinaryProjectFormat.isBinaryExtension(fileHandle)) {
                         fileHandle = fileHandle.sibling(fileHandle.nameWithoutExtension() + ".scmp");
                     }
-                    projectData.save(fileHandle);
                     projectData.setLastOpenSavePath(fileHandle.parent().path() + "/");
-                    if (runnable != null) {
-                        runnable.run();
-                    }
+                    projectData.save(fileHandle, runnable);
                 });
             }
         });
@@ -683,7 +674,7 @@ public class MainListener extends RootTableListener {
         var validArgument = false;
         if (args != null && args.length > 0) {
             var fileHandle = Gdx.files.absolute(args[0]);
-            if (fileHandle.exists() && fileHandle.extension().toLowerCase(Locale.ROOT).equals("scmp")) {
+            if (fileHandle.exists() && (fileHandle.extension().toLowerCase(Locale.ROOT).equals("scmp") || BinaryProjectFormat.isBinaryExtension(fileHandle))) {
                 validArgument = true;
                 openFile(fileHandle);
             }
@@ -125,7 +125,7 @@ public class RootTable extends Table {
         
         filesDroppedListener = (Array<FileHandle> files) -> {
             for (FileHandle fileHandle : files) {
-                if (fileHandle.extension().toLowerCase(Locale.ROOT).equals("scmp")) {
+                if (fileHandle.extension().toLowerCase(Locale.ROOT).equals("scmp") || BinaryProjectFormat.isBinaryExtension(fileHandle)) {
                     fire(new ScmpDroppedEvent(fileHandle));
                     break;
                 }
@@ -2070,16 +2070,16 @@ public class RootTable extends Table {
         }
     }
     
-    public void refreshPreview() {        
+    public void refreshPreview() {
+        //fonts of the previous preview are released afterwards so fonts that are still in use are not reloaded
+        Array<BitmapFont> staleFonts = new Array<>(previewFonts);
+        previewFonts.clear();
+        
         if (previewTable != null) {
             previewTable.clear();
             previewTable.setBackground("white");
             previewTable.setColor((Color) previewProperties.get("bgcolor"));
 
-            for (BitmapFont font : previewFonts) {
-                font.dispose();
-            }
-
             if (classSelectBox.getSelectedIndex() >= 0 && classSelectBox.getSelectedIndex() < Main.BASIC_CLASSES.length) {
                 StyleData styleData = getSelectedStyle();
                 Class clazz = Main.BASIC_CLASSES[classSelectBox.getSelectedIndex()];
@@ -2472,10 +2472,7 @@ public class RootTable extends Table {
                                     for (FontData fd : jsonData.getFonts()) {
                                         if (fd.getName().equals(fontName)) {
                                             fontData = fd;
-                                            font = new BitmapFont(fd.file, fd.isFlip());
-                                            if (fd.getScaling() != -1) font.getData().setScale(fd.getScaling() / font.getCapHeight());
-                                            font.getData().markupEnabled = fd.isMarkupEnabled();
-                                            font.getData().flipped = fd.isFlip();
+                                            font = PreviewFontCache.obtainFont(fd);
                                             previewFonts.add(font);
                                             break;
                                         }
@@ -2520,7 +2517,7 @@ public class RootTable extends Table {
                                     }
 
                                     if (drawable != null) {
-                                        Image image = new Image(atlasData.getDrawablePairs().get(drawable));
+                                        Image image = new Image(atlasData.getDrawablePair(drawable));
                                         container.setActor(image);
                                         
                                         container.addListener((Main.makeTooltip(drawable.name, tooltipManager, getSkin())));
@@ -2532,6 +2529,10 @@ public class RootTable extends Table {
                 }
             }
         }
+        
+        for (BitmapFont font : staleFonts) {
+            PreviewFontCache.freeFont(font);
+        }
     }
     
     public <T> T createPreviewStyle(Class<T> clazz, StyleData styleData) {
@@ -2543,7 +2544,7 @@ public class RootTable extends Table {
                 Object value = styleData.getInheritedValue(field.getName());
                 if (value != null) {
                     if (field.getType().equals(Drawable.class)) {
-                        field.set(instance, atlasData.getDrawablePairs().get(atlasData.getDrawable((String) value)));
+                        field.set(instance, atlasData.getDrawablePair(atlasData.getDrawable((String) value)));
                     } else if (field.getType().equals(Color.class)) {
                         for (ColorData data : projectData.getJsonData().getColors()) {
                             if (value.equals(data.getName())) {
@@ -2554,10 +2555,7 @@ public class RootTable extends Table {
                     } else if (field.getType().equals(BitmapFont.class)) {
                         for (FontData data : projectData.getJsonData().getFonts()) {
                             if (value.equals(data.getName())) {
-                                BitmapFont font = new BitmapFont(data.file, data.isFlip());
-                                if (data.getScaling() != -1) font.getData().setScale(data.getScaling() / font.getCapHeight());
-                                font.getData().markupEnabled = data.isMarkupEnabled();
-                                font.getData().flipped = data.isFlip();
+                                BitmapFont font = PreviewFontCache.obtainFont(data);
                                 previewFonts.add(font);
                                 field.set(instance, font);
                             }
@@ -2716,8 +2714,8 @@ public class RootTable extends Table {
             FileHandle file = recentFile.getFileHandle();
             if (file.exists()) {
                 dialogFactory.showDialogLoading(() -> {
+                    if (!projectData.load(file, dialogFactory::showLoadingProgress)) return;
                     Gdx.app.postRunnable(() -> {
-                        projectData.load(file);
                         Array<DrawableData> drawableErrors = projectData.verifyDrawablePaths();
                         Array<FontData> fontErrors = projectData.verifyFontPaths();
                         var freeTypeFontErrors = projectData.verifyFreeTypeFontPaths();
@@ -2926,7 +2924,7 @@ public class RootTable extends Table {
     public void act(float delta) {
         super.act(delta);
         
-        for (var drawable : atlasData.getDrawablePairs().values()) {
+        for (var drawable : atlasData.getCreatedDrawables()) {
             if (drawable instanceof TenPatchDrawable) {
                 ((TenPatchDrawable) drawable).update(delta);
             }
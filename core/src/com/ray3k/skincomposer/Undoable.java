@@ -27,4 +27,13 @@ public interface Undoable {
     public void undo();
     public void redo();
     public String getUndoText();
+    
+    /**
+     * The project data that is changed by this undoable, such as a style, a style property or a widget class. Used by
+     * the edit journal to find the parts of the project that need to be recorded.
+     * @return The changed data or null if any part of the project may have changed.
+     */
+    public default Object getChangedData() {
+        return null;
+    }
 }
@@ -71,6 +71,7 @@ public class UndoableManager {
 
             rootTable.setRedoDisabled(false);
             rootTable.setRedoText("Redo " + undoable.getUndoText());
+            projectData.getEditJournal().record("Undo " + undoable.getUndoText(), undoable.getChangedData());
         }
     }
     
@@ -91,6 +92,7 @@ public class UndoableManager {
 
             rootTable.setUndoDisabled(false);
             rootTable.setUndoText("Undo " + undoables.get(undoIndex).getUndoText());
+            projectData.getEditJournal().record("Redo " + undoables.get(undoIndex).getUndoText(), undoables.get(undoIndex).getChangedData());
         }
     }
     
@@ -118,6 +120,8 @@ public class UndoableManager {
             undoIndex = MathUtils.clamp(undoIndex, -1, undoables.size - 1);
             undoables.removeRange(0, offset - 1);
         }
+        
+        projectData.getEditJournal().record(undoable.getUndoText(), undoable.getChangedData());
     }
     
     public void addUndoable(Undoable undoable) {
@@ -158,6 +162,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Change Style Property " + property.name;
         }
+        
+        @Override
+        public Object getChangedData() {
+            return property;
+        }
     }
     
     public static class CustomDoubleUndoable implements Undoable {
@@ -194,6 +203,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Change Style Property " + property.getName();
         }
+        
+        @Override
+        public Object getChangedData() {
+            return property;
+        }
     }
     
     public static class CustomTextUndoable implements Undoable {
@@ -230,6 +244,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Change Style Property " + property.getName();
         }
+        
+        @Override
+        public Object getChangedData() {
+            return property;
+        }
     }
     
     public static class CustomBoolUndoable implements Undoable {
@@ -266,6 +285,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Change Style Property " + property.getName();
         }
+        
+        @Override
+        public Object getChangedData() {
+            return property;
+        }
     }
     
     public static class CustomStyleSelectionUndoable implements Undoable {
@@ -298,6 +322,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Change Style Property " + property.getName();
         }
+        
+        @Override
+        public Object getChangedData() {
+            return property;
+        }
     }
     
     public static class DrawableUndoable implements Undoable {
@@ -339,6 +368,11 @@ public class UndoableManager {
             return "Change Style Property " + property.name;
         }
         
+        @Override
+        public Object getChangedData() {
+            return property;
+        }
+        
     }
     
     public static class CustomDrawableUndoable implements Undoable {
@@ -378,6 +412,11 @@ public class UndoableManager {
             return "Change Style Property " + property.getName();
         }
         
+        @Override
+        public Object getChangedData() {
+            return property;
+        }
+        
     }
     
     public static class ColorUndoable implements Undoable {
@@ -430,6 +469,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Change Style Property " + property.name;
         }
+        
+        @Override
+        public Object getChangedData() {
+            return property;
+        }
     }
     
     public static class CustomColorUndoable implements Undoable {
@@ -480,6 +524,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Change Style Property " + property.getName();
         }
+        
+        @Override
+        public Object getChangedData() {
+            return property;
+        }
     }
     
     public static class FontUndoable implements Undoable {
@@ -546,6 +595,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Change Style Property " + property.name;
         }
+        
+        @Override
+        public Object getChangedData() {
+            return property;
+        }
     }
     
     public static class CustomFontUndoable implements Undoable {
@@ -610,6 +664,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Change Style Property " + property.getName();
         }
+        
+        @Override
+        public Object getChangedData() {
+            return property;
+        }
     }
     
     public static class SelectBoxUndoable implements Undoable {
@@ -645,6 +704,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Change Style Property " + property.name;
         }
+        
+        @Override
+        public Object getChangedData() {
+            return property;
+        }
     }
     
     public static class ParentUndoable implements Undoable {
@@ -683,6 +747,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Change Style Parent";
         }
+        
+        @Override
+        public Object getChangedData() {
+            return style;
+        }
     }
 
     public static class NewStyleUndoable implements Undoable {
@@ -713,6 +782,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Create Style \"" + styleData.name + "\"";
         }
+        
+        @Override
+        public Object getChangedData() {
+            return selectedClass;
+        }
     }
 
     public static class DuplicateStyleUndoable implements Undoable {
@@ -743,6 +817,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Duplicate Style \"" + styleData.name + "\"";
         }
+        
+        @Override
+        public Object getChangedData() {
+            return originalStyle;
+        }
     }
     
     public static class DeleteStyleUndoable implements Undoable {
@@ -770,6 +849,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Delete Style \"" + styleData.name + "\"";
         }
+        
+        @Override
+        public Object getChangedData() {
+            return styleData;
+        }
     }
 
     public static class RenameStyleUndoable implements Undoable {
@@ -789,6 +873,7 @@ public class UndoableManager {
         @Override
         public void undo() {
             styleData.name = oldName;
+            jsonData.styleRenamed(styleData);
             
             for (Array<StyleData> styles : jsonData.getClassStyleMap().values()) {
                 for (StyleData style : styles) {
@@ -812,6 +897,7 @@ public class UndoableManager {
         @Override
         public void redo() {
             styleData.name = newName;
+            jsonData.styleRenamed(styleData);
             
             for (Array<StyleData> styles : jsonData.getClassStyleMap().values()) {
                 for (StyleData style : styles) {
@@ -837,6 +923,11 @@ public class UndoableManager {
             return "Rename Style \"" + styleData.name + "\"";
         }
         
+        @Override
+        public Object getChangedData() {
+            //styles of any class may refer to the renamed style
+            return jsonData.getClassStyleMap();
+        }
     }
     
     public static class ReorderStylesUndoable implements Undoable {
@@ -886,6 +977,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Reorder styles for class \"" + widgetClass.getSimpleName() + "\"";
         }
+        
+        @Override
+        public Object getChangedData() {
+            return widgetClass;
+        }
     }
     
     public static class ReorderCustomStylesUndoable implements Undoable {
@@ -927,6 +1023,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Reorder styles for class \"" + customClass.getDisplayName() + "\"";
         }
+        
+        @Override
+        public Object getChangedData() {
+            return customClass;
+        }
     }
 
     public static class NewCustomClassUndoable implements Undoable {
@@ -958,6 +1059,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "New Class " + displayName;
         }
+        
+        @Override
+        public Object getChangedData() {
+            return customClass;
+        }
     }
     
     public static class RenameCustomClassUndoable implements Undoable {
@@ -1004,6 +1110,11 @@ public class UndoableManager {
             return "Rename Class to " + displayName;
         }
         
+        @Override
+        public Object getChangedData() {
+            return customClass;
+        }
+        
     }
     
     public static class DeleteCustomClassUndoable implements Undoable {
@@ -1034,6 +1145,11 @@ public class UndoableManager {
             return "Delete class " + customClass.getDisplayName();
         }
         
+        @Override
+        public Object getChangedData() {
+            return customClass;
+        }
+        
     }
     
     public static class DuplicateCustomClassUndoable implements Undoable{
@@ -1071,6 +1187,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Duplicate class " + customClass.getDisplayName();
         }
+        
+        @Override
+        public Object getChangedData() {
+            return customClass;
+        }
     }
     
     public static class NewCustomPropertyUndoable implements Undoable {
@@ -1122,6 +1243,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "New Property " + customProperty.getName();
         }
+        
+        @Override
+        public Object getChangedData() {
+            return customProperty;
+        }
     }
     
     public static class DuplicateCustomPropertyUndoable implements Undoable {
@@ -1171,6 +1297,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Duplicate Property " + customProperty.getName();
         }
+        
+        @Override
+        public Object getChangedData() {
+            return customProperty;
+        }
     }
     
     public static class RenameCustomPropertyUndoable implements Undoable {
@@ -1237,6 +1368,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Rename Property " + customProperty.getName();
         }
+        
+        @Override
+        public Object getChangedData() {
+            return customProperty;
+        }
     }
 
     public static class DeleteCustomPropertyUndoable implements Undoable {
@@ -1287,6 +1423,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Delete Property " + customProperty.getName();
         }
+        
+        @Override
+        public Object getChangedData() {
+            return customProperty;
+        }
     }
 
     public static class NewCustomStyleUndoable implements Undoable {
@@ -1321,6 +1462,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "New style " + style.getName();
         }
+        
+        @Override
+        public Object getChangedData() {
+            return style;
+        }
     }
     
     public static class DuplicateCustomStyleUndoable implements Undoable {
@@ -1354,6 +1500,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Duplicate style " + style.getName();
         }
+        
+        @Override
+        public Object getChangedData() {
+            return style;
+        }
     }
     
     public static class DeleteCustomStyleUndoable implements Undoable {
@@ -1385,6 +1536,11 @@ public class UndoableManager {
         public String getUndoText() {
             return "Delete style " + style.getName();
         }
+        
+        @Override
+        public Object getChangedData() {
+            return style;
+        }
     }
 
     public static class RenameCustomStyleUndoable implements Undoable {
@@ -1420,5 +1576,10 @@ public class UndoableManager {
         public String getUndoText() {
             return "Duplicate style " + style.getName();
         }
+        
+        @Override
+        public Object getChangedData() {
+            return style;
+        }
     }
 }
\ No newline at end of file
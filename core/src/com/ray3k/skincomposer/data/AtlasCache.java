@@ -0,0 +1,313 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2022 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.data;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps the packed pages of the preview atlas between sessions. Each project has an entry in the cache folder
+ * containing the manifest of the packed images, the pages as CIM files, and the region layout. An entry is only used
+ * if the project id, the settings checksum, and the checksums of all input images match. The least recently used
+ * entries are deleted when the cache grows beyond MAX_CACHE_SIZE. Entries are written on a background thread from
+ * copies of the pages, so refreshing the atlas does not wait for the disk.
+ */
+public class AtlasCache {
+    private static final long MAX_CACHE_SIZE = 256L * 1024L * 1024L;
+    private static final ExecutorService writeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "Atlas Cache");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private FileHandle folder;
+    private Json json;
+    /**
+     * The textures of the current atlas in the order they are stored in the cache entry.
+     */
+    private Array<Texture> pages;
+    /**
+     * The number of rects each packer page had when it was last written.
+     */
+    private ObjectIntMap<PixmapPacker.Page> savedRects;
+    
+    public AtlasCache(FileHandle folder) {
+        this.folder = folder;
+        pages = new Array<>();
+        savedRects = new ObjectIntMap<>();
+        json = new Json();
+        json.setElementType(AtlasManifest.class, "records", AtlasManifest.FileRecord.class);
+        json.setElementType(CachedAtlas.class, "regions", CachedRegion.class);
+    }
+    
+    /**
+     * Forgets the pages of the current atlas. Called when the atlas is disposed so that the next save rewrites every
+     * page.
+     */
+    public void reset() {
+        pages.clear();
+        savedRects.clear();
+    }
+    
+    /**
+     * Loads the cached pages and regions into the atlas if the cache entry was packed from the same inputs.
+     * @param manifest The manifest of the images that are about to be packed. Its staleImages count is restored from
+     *                 the entry.
+     * @param atlas
+     * @param contentRegions Filled with the regions that other images with identical pixel data can alias.
+     * @param minFilter
+     * @param magFilter
+     * @return true if the atlas was loaded from the cache.
+     */
+    public boolean load(AtlasManifest manifest, TextureAtlas atlas, ObjectMap<String, AtlasRegion> contentRegions,
+                        TextureFilter minFilter, TextureFilter magFilter) {
+        finishWriting();
+        var entry = folder.child(Integer.toString(manifest.projectId));
+        var manifestFile = entry.child("manifest.json");
+        if (!manifestFile.exists()) return false;
+        
+        try {
+            var cachedManifest = json.fromJson(AtlasManifest.class, manifestFile);
+            if (cachedManifest.projectId != manifest.projectId || cachedManifest.settingsChecksum != manifest.settingsChecksum
+                    || !cachedManifest.records.equals(manifest.records)) {
+                return false;
+            }
+            
+            var cachedAtlas = json.fromJson(CachedAtlas.class, entry.child("regions.json"));
+            for (int i = 0; i < cachedAtlas.pages; i++) {
+                var pixmap = PixmapIO.readCIM(entry.child("page" + i + ".cim"));
+                var texture = new Texture(pixmap);
+                pixmap.dispose();
+                texture.setFilter(minFilter, magFilter);
+                atlas.getTextures().add(texture);
+                pages.add(texture);
+            }
+            
+            for (var cachedRegion : cachedAtlas.regions) {
+                var region = new AtlasRegion(pages.get(cachedRegion.page), cachedRegion.x, cachedRegion.y,
+                        cachedRegion.width, cachedRegion.height);
+                region.name = cachedRegion.name;
+                region.offsetX = cachedRegion.offsetX;
+                region.offsetY = cachedRegion.offsetY;
+                region.originalWidth = cachedRegion.originalWidth;
+                region.originalHeight = cachedRegion.originalHeight;
+                if (cachedRegion.split != null) {
+                    region.names = new String[] {"split", "pad"};
+                    region.values = new int[][] {cachedRegion.split, cachedRegion.pad};
+                }
+                atlas.getRegions().add(region);
+                if (cachedRegion.content != null) contentRegions.put(cachedRegion.content, region);
+            }
+            
+            manifest.staleImages = cachedManifest.staleImages;
+            entry.file().setLastModified(System.currentTimeMillis());
+            return true;
+        } catch (Exception e) {
+            Gdx.app.error(getClass().getName(), "Error while reading texture atlas cache: " + entry.path(), e);
+            for (var texture : pages) {
+                atlas.getTextures().remove(texture);
+                texture.dispose();
+            }
+            atlas.getRegions().clear();
+            contentRegions.clear();
+            reset();
+            entry.deleteDirectory();
+            return false;
+        }
+    }
+    
+    /**
+     * Writes the atlas to the project's cache entry. Only pages of the packer that received new images since the last
+     * save are written again. The changed pages are copied and written with the region layout on a background thread.
+     * Must be called on the GL thread.
+     * @param manifest
+     * @param atlas
+     * @param packer May be null if no images have been packed since the atlas was loaded from the cache.
+     * @param contentRegions
+     */
+    public void save(AtlasManifest manifest, TextureAtlas atlas, PixmapPacker packer, ObjectMap<String, AtlasRegion> contentRegions) {
+        var entry = folder.child(Integer.toString(manifest.projectId));
+        var changedPages = new ObjectMap<Integer, Pixmap>();
+        String regionsText;
+        String manifestText;
+        try {
+            if (packer != null) {
+                for (var page : packer.getPages()) {
+                    var texture = page.getTexture();
+                    if (texture == null) continue;
+                    int index = pages.indexOf(texture, true);
+                    if (index == -1) {
+                        index = pages.size;
+                        pages.add(texture);
+                    }
+                    
+                    if (savedRects.get(page, -1) != page.getRects().size) {
+                        //the packer keeps drawing into its pixmaps, so the writer gets a copy
+                        var pixmap = page.getPixmap();
+                        var pixels = pixmap.getPixels().duplicate();
+                        pixels.clear();
+                        var copy = new Pixmap(pixmap.getWidth(), pixmap.getHeight(), pixmap.getFormat());
+                        copy.getPixels().put(pixels).clear();
+                        changedPages.put(index, copy);
+                        savedRects.put(page, page.getRects().size);
+                    }
+                }
+            }
+            
+            var contents = new ObjectMap<AtlasRegion, String>();
+            for (var contentEntry : contentRegions) {
+                contents.put(contentEntry.value, contentEntry.key);
+            }
+            
+            var cachedAtlas = new CachedAtlas();
+            cachedAtlas.pages = pages.size;
+            for (var region : atlas.getRegions()) {
+                var cachedRegion = new CachedRegion();
+                cachedRegion.name = region.name;
+                cachedRegion.page = pages.indexOf(region.getTexture(), true);
+                if (cachedRegion.page == -1) throw new IllegalStateException("Region " + region.name + " is not on a cached page.");
+                cachedRegion.x = region.getRegionX();
+                cachedRegion.y = region.getRegionY();
+                cachedRegion.width = region.getRegionWidth();
+                cachedRegion.height = region.getRegionHeight();
+                cachedRegion.offsetX = region.offsetX;
+                cachedRegion.offsetY = region.offsetY;
+                cachedRegion.originalWidth = region.originalWidth;
+                cachedRegion.originalHeight = region.originalHeight;
+                cachedRegion.split = region.findValue("split");
+                cachedRegion.pad = region.findValue("pad");
+                cachedRegion.content = contents.get(region);
+                cachedAtlas.regions.add(cachedRegion);
+            }
+            regionsText = json.toJson(cachedAtlas);
+            manifestText = json.toJson(manifest);
+        } catch (Exception e) {
+            Gdx.app.error(getClass().getName(), "Error while writing texture atlas cache: " + entry.path(), e);
+            for (var pixmap : changedPages.values()) pixmap.dispose();
+            savedRects.clear();
+            writeExecutor.execute(entry::deleteDirectory);
+            return;
+        }
+        
+        int pageCount = pages.size;
+        writeExecutor.execute(() -> {
+            try {
+                //the manifest marks the entry as complete, so it is removed until everything else is written
+                entry.mkdirs();
+                entry.child("manifest.json").delete();
+                
+                for (var page : changedPages) {
+                    PixmapIO.writeCIM(entry.child("page" + page.key + ".cim"), page.value);
+                }
+                
+                for (int i = pageCount; entry.child("page" + i + ".cim").exists(); i++) {
+                    entry.child("page" + i + ".cim").delete();
+                }
+                
+                entry.child("regions.json").writeString(regionsText, false);
+                entry.child("manifest.json").writeString(manifestText, false);
+            } catch (Exception e) {
+                Gdx.app.error(getClass().getName(), "Error while writing texture atlas cache: " + entry.path(), e);
+                entry.deleteDirectory();
+                //every page is written again by the next save
+                Gdx.app.postRunnable(savedRects::clear);
+                return;
+            } finally {
+                for (var pixmap : changedPages.values()) pixmap.dispose();
+            }
+            
+            trim(entry);
+        });
+    }
+    
+    /**
+     * Waits until the entries that are being written in the background are complete.
+     */
+    private void finishWriting() {
+        try {
+            writeExecutor.submit(() -> {}).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Gdx.app.error(getClass().getName(), "Error while finishing texture atlas cache writes", e);
+        }
+    }
+    
+    /**
+     * Deletes the least recently used entries until the cache is smaller than MAX_CACHE_SIZE.
+     * @param current The entry in use, which is never deleted.
+     */
+    private void trim(FileHandle current) {
+        var entries = new Array<FileHandle>(folder.list());
+        entries.sort((o1, o2) -> Long.compare(o2.file().lastModified(), o1.file().lastModified()));
+        
+        long size = 0;
+        for (var entry : entries) {
+            if (!entry.isDirectory()) continue;
+            long entrySize = 0;
+            for (var file : entry.list()) entrySize += file.length();
+            size += entrySize;
+            
+            if (size > MAX_CACHE_SIZE && !entry.equals(current)) {
+                entry.deleteDirectory();
+                size -= entrySize;
+            }
+        }
+    }
+    
+    public static class CachedAtlas {
+        public int pages;
+        public Array<CachedRegion> regions = new Array<>();
+    }
+    
+    public static class CachedRegion {
+        public String name;
+        public int page;
+        public int x;
+        public int y;
+        public int width;
+        public int height;
+        public float offsetX;
+        public float offsetY;
+        public int originalWidth;
+        public int originalHeight;
+        public int[] split;
+        public int[] pad;
+        public String content;
+    }
+}
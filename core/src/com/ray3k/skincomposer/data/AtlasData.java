@@ -29,15 +29,20 @@ import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.PixmapIO;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.Texture.TextureFilter;
 import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.scenes.scene2d.utils.*;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonReader;
 import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
 import com.ray3k.skincomposer.Main;
 import com.ray3k.skincomposer.data.DrawableData.DrawableType;
 import com.ray3k.skincomposer.utils.Utils;
@@ -49,20 +54,33 @@ import dev.lyze.gdxtinyvg.scene2d.TinyVGDrawable;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FilenameFilter;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.ray3k.skincomposer.Main.*;
 
 public class AtlasData implements Json.Serializable {
     public boolean atlasCurrent = false;
-    private Array<DrawableData> drawables;
-    private Array<DrawableData> fontDrawables;
+    private NameIndexedArray<DrawableData> drawables;
+    private NameIndexedArray<DrawableData> fontDrawables;
     private TextureAtlas atlas;
-    public ObjectMap<DrawableData, Drawable> drawablePairs;
+    private PixmapPacker packer;
+    private int packedImages;
+    private AtlasManifest manifest;
+    private ObjectMap<String, AtlasRegion> contentRegions;
+    private AtlasCache atlasCache;
+    private ObjectMap<DrawableData, Drawable> drawablePairs;
+    private static final int MIN_STALE_IMAGES = 32;
     
     public AtlasData() {
-        drawables = new Array<>();
-        fontDrawables = new Array<>();
+        drawables = new NameIndexedArray<>(data -> data.name);
+        fontDrawables = new NameIndexedArray<>(data -> data.name);
+        contentRegions = new ObjectMap<>();
+        atlasCache = new AtlasCache(Main.appFolder.child("texturepacker/cache/"));
         drawablePairs = new ObjectMap<>();
     }
     
@@ -70,38 +88,23 @@ public class AtlasData implements Json.Serializable {
         drawables.clear();
         fontDrawables.clear();
         atlasCurrent = false;
+        manifest = null;
     }
 
-    public Array<DrawableData> getDrawables() {
+    public NameIndexedArray<DrawableData> getDrawables() {
         return drawables;
     }
     
     public DrawableData getDrawable(String name) {
-        DrawableData returnValue = null;
-        for (DrawableData data : drawables) {
-            if (data.name.equals(name)) {
-                returnValue = data;
-                break;
-            }
-        }
-        
-        return returnValue;
+        return drawables.findByName(name);
     }
 
-    public Array<DrawableData> getFontDrawables() {
+    public NameIndexedArray<DrawableData> getFontDrawables() {
         return fontDrawables;
     }
     
     public DrawableData getFontDrawable(String name) {
-        DrawableData returnValue = null;
-        for (DrawableData data : fontDrawables) {
-            if (data.name.equals(name)) {
-                returnValue = data;
-                break;
-            }
-        }
-        
-        return returnValue;
+        return fontDrawables.findByName(name);
     }
     
     public void readAtlas(FileHandle fileHandle) throws Exception {
@@ -119,74 +122,85 @@ public class AtlasData implements Json.Serializable {
             TextureAtlas atlas = new TextureAtlas(fileHandle);
             Array<AtlasRegion> regions = atlas.getRegions();
             
-            for (AtlasRegion region : regions) {
-                Texture texture = region.getTexture();
-                if (!texture.getTextureData().isPrepared()) {
-                    texture.getTextureData().prepare();
-                }
-                
-                Pixmap pixmap = texture.getTextureData().consumePixmap();
-                pixmap.setBlending(Pixmap.Blending.None);
-                Pixmap savePixmap;
-                String name;
-                
-                if (region.findValue("split") == null && region.findValue("pad") == null) {
-                    name = region.name + ".png";
-                    savePixmap = new Pixmap(region.getRegionWidth(), region.getRegionHeight(), Pixmap.Format.RGBA8888);
-                    savePixmap.setBlending(Pixmap.Blending.None);
-                    for (int x = 0; x < region.getRegionWidth(); x++) {
-                        for (int y = 0; y < region.getRegionHeight(); y++) {
-                            int colorInt = pixmap.getPixel(region.getRegionX() + x, region.getRegionY() + y);
-                            savePixmap.drawPixel(x, y, colorInt);
+            //each page is decoded once and the regions are copied out of it in bulk
+            ObjectMap<Texture, Pixmap> pagePixmaps = new ObjectMap<>();
+            Array<FileHandle> outputFiles = new Array<>();
+            var executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+            var futures = new Array<Future<?>>();
+            try {
+                for (AtlasRegion region : regions) {
+                    Texture texture = region.getTexture();
+                    Pixmap pixmap = pagePixmaps.get(texture);
+                    if (pixmap == null) {
+                        if (!texture.getTextureData().isPrepared()) {
+                            texture.getTextureData().prepare();
                         }
+                        pixmap = texture.getTextureData().consumePixmap();
+                        pagePixmaps.put(texture, pixmap);
                     }
-                } else {
-                    name = region.name + ".9.png";
-                    savePixmap = new Pixmap(region.getRegionWidth() + 2, region.getRegionHeight() + 2, pixmap.getFormat());
-                    savePixmap.setBlending(Pixmap.Blending.None);
-                    int x;
-                    int y;
                     
-                    //draw 9 patch lines
-                    savePixmap.setColor(Color.BLACK);
-
-                    if (region.findValue("split") != null) {
-                        int[] splits = region.findValue("split");
+                    Pixmap savePixmap;
+                    String name;
+                    
+                    if (region.findValue("split") == null && region.findValue("pad") == null) {
+                        name = region.name + ".png";
+                        savePixmap = new Pixmap(region.getRegionWidth(), region.getRegionHeight(), Pixmap.Format.RGBA8888);
+                        savePixmap.setBlending(Pixmap.Blending.None);
+                        savePixmap.drawPixmap(pixmap, 0, 0, region.getRegionX(), region.getRegionY(),
+                                region.getRegionWidth(), region.getRegionHeight());
+                    } else {
+                        name = region.name + ".9.png";
+                        savePixmap = new Pixmap(region.getRegionWidth() + 2, region.getRegionHeight() + 2, pixmap.getFormat());
+                        savePixmap.setBlending(Pixmap.Blending.None);
+                        int width = savePixmap.getWidth();
+                        int height = savePixmap.getHeight();
                         
-                        x = 0;
-                        for (y = splits[2] + 1; y < savePixmap.getHeight() - splits[3] - 1; y++) {
-                            savePixmap.drawPixel(x, y);
-                        }
+                        //draw 9 patch lines
+                        savePixmap.setColor(Color.BLACK);
                         
-                        y = 0;
-                        for (x = splits[0] + 1; x < savePixmap.getWidth() - splits[1] - 1; x++) {
-                            savePixmap.drawPixel(x, y);
+                        if (region.findValue("split") != null) {
+                            int[] splits = region.findValue("split");
+                            fillLine(savePixmap, 0, splits[2] + 1, 1, height - splits[3] - splits[2] - 2);
+                            fillLine(savePixmap, splits[0] + 1, 0, width - splits[1] - splits[0] - 2, 1);
                         }
-                    }
-                    
-                    if (region.findValue("pad") != null) {
-                        int[] pads = region.findValue("pad");
                         
-                        x = savePixmap.getWidth() - 1;
-                        for (y = pads[2] + 1; y < savePixmap.getHeight() - pads[3] - 1; y++) {
-                            savePixmap.drawPixel(x, y);
+                        if (region.findValue("pad") != null) {
+                            int[] pads = region.findValue("pad");
+                            fillLine(savePixmap, width - 1, pads[2] + 1, 1, height - pads[3] - pads[2] - 2);
+                            fillLine(savePixmap, pads[0] + 1, height - 1, width - pads[1] - pads[0] - 2, 1);
                         }
                         
-                        y = savePixmap.getHeight() - 1;
-                        for (x = pads[0] + 1; x < savePixmap.getWidth() - pads[1] - 1; x++) {
-                            savePixmap.drawPixel(x, y);
-                        }
+                        savePixmap.drawPixmap(pixmap, 1, 1, region.getRegionX(), region.getRegionY(),
+                                region.getRegionWidth(), region.getRegionHeight());
                     }
-
-                    for (x = 0; x < region.getRegionWidth(); x++) {
-                        for (y = 0; y < region.getRegionHeight(); y++) {
-                            int colorInt = pixmap.getPixel(region.getRegionX() + x, region.getRegionY() + y);
-                            savePixmap.drawPixel(x + 1, y + 1, colorInt);
+                    
+                    FileHandle outputFile = targetDirectory.child(name);
+                    outputFiles.add(outputFile);
+                    futures.add(executor.submit(() -> {
+                        try {
+                            PixmapIO.writePNG(outputFile, savePixmap);
+                        } finally {
+                            savePixmap.dispose();
                         }
+                    }));
+                }
+                
+                for (var future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        throw new Exception("Error writing atlas region.", e.getCause());
                     }
                 }
-                FileHandle outputFile = targetDirectory.child(name);
-                PixmapIO.writePNG(outputFile, savePixmap);
+            } finally {
+                executor.shutdown();
+                for (var pixmap : pagePixmaps.values()) {
+                    pixmap.dispose();
+                }
+                atlas.dispose();
+            }
+            
+            for (FileHandle outputFile : outputFiles) {
                 DrawableData drawable = new DrawableData(outputFile);
                 if (Utils.isNinePatch(outputFile.name())) {
                     drawable.type = DrawableType.NINE_PATCH;
@@ -195,10 +209,9 @@ public class AtlasData implements Json.Serializable {
                 }
                 
                 //delete drawables with the same name
-                for (DrawableData originalData : new Array<>(projectData.getAtlasData().getDrawables())) {
-                    if (originalData.name.equals(drawable.name)) {
-                        projectData.getAtlasData().getDrawables().removeValue(originalData, true);
-                    }
+                DrawableData originalData;
+                while ((originalData = projectData.getAtlasData().getDrawable(drawable.name)) != null) {
+                    projectData.getAtlasData().getDrawables().removeValue(originalData, true);
                 }
                     
                 drawables.add(drawable);
@@ -210,27 +223,207 @@ public class AtlasData implements Json.Serializable {
         }
     }
     
+    /**
+     * Fills a one pixel wide 9 patch guide line. Lines with no length are skipped.
+     * @param pixmap
+     * @param x
+     * @param y
+     * @param width
+     * @param height
+     */
+    private static void fillLine(Pixmap pixmap, int x, int y, int width, int height) {
+        if (width > 0 && height > 0) pixmap.fillRectangle(x, y, width, height);
+    }
+    
+    /**
+     * Packs the preview texture atlas directly into Pixmap pages which are uploaded as textures. Only images that have
+     * changed since the last call are packed into the free space of the existing pages or into a new page. A full
+     * repack is performed if the packing settings have changed or if too many images have been replaced. The pages are
+     * kept in the AtlasCache so that a project reopened without changes does not have to be packed again.
+     * @param settingsFile
+     * @return
+     * @throws Exception
+     */
     public Array<String> writeAtlas(FileHandle settingsFile) throws Exception {
-        return writeAtlas(Main.appFolder.child("temp/" + projectData.getId() + ".atlas"), settingsFile);
+        Array<String> warnings = new Array<>();
+        Array<FileHandle> files = new Array<>();
+        collectAtlasFiles(files, warnings);
+        
+        var newManifest = new AtlasManifest();
+        newManifest.projectId = projectData.getId();
+        newManifest.settingsChecksum = Utils.fileChecksum(settingsFile);
+        
+        var resolvedFiles = new Array<FileHandle>();
+        var changedFiles = new Array<FileHandle>();
+        int replacedImages = 0;
+        for (var file : files) {
+            var resolvedFile = resolveAtlasFile(file);
+            resolvedFiles.add(resolvedFile);
+            var record = manifest != null ? manifest.createRecord(resolvedFile) : newManifest.createRecord(resolvedFile);
+            newManifest.records.put(resolvedFile.path(), record);
+            
+            if (manifest == null || !record.equals(manifest.records.get(resolvedFile.path()))) {
+                changedFiles.add(resolvedFile);
+                if (manifest != null && manifest.records.containsKey(resolvedFile.path())) replacedImages++;
+            }
+        }
+        
+        if (manifest != null) {
+            for (var path : manifest.records.keys()) {
+                if (!newManifest.records.containsKey(path)) replacedImages++;
+            }
+        }
+        
+        boolean fullPack = atlas == null || manifest == null
+                || manifest.projectId != newManifest.projectId
+                || manifest.settingsChecksum != newManifest.settingsChecksum
+                || manifest.staleImages + replacedImages > Math.max(MIN_STALE_IMAGES, files.size / 4);
+        
+        var settings = new JsonReader().parse(settingsFile);
+        var minFilter = TextureFilter.valueOf(settings.getString("filterMin", "Nearest"));
+        var magFilter = TextureFilter.valueOf(settings.getString("filterMag", "Nearest"));
+        if (fullPack) {
+            disposeAtlas();
+            atlas = new TextureAtlas();
+            if (!atlasCache.load(newManifest, atlas, contentRegions, minFilter, magFilter)) {
+                packer = createPacker(settings);
+                packImages(resolvedFiles, minFilter, magFilter);
+                atlasCache.save(newManifest, atlas, packer, contentRegions);
+            }
+        } else {
+            newManifest.staleImages = manifest.staleImages + replacedImages;
+            if (changedFiles.size > 0) {
+                //the packer is created on demand if the pages were loaded from the cache
+                if (packer == null) packer = createPacker(settings);
+                packImages(changedFiles, minFilter, magFilter);
+                atlasCache.save(newManifest, atlas, packer, contentRegions);
+            }
+        }
+        
+        manifest = newManifest;
+        return warnings;
+    }
+    
+    /**
+     * Packs the images into the in-memory pages and adds their regions to the atlas. Images with identical pixel data
+     * are packed once and added as additional regions sharing the same area of the page. Regions previously packed
+     * with the same name are removed from the atlas.
+     * @param files
+     * @param minFilter
+     * @param magFilter
+     */
+    private void packImages(Array<FileHandle> files, TextureFilter minFilter, TextureFilter magFilter) {
+        var names = new ObjectMap<String, String>();
+        var keyContents = new ObjectMap<String, String>();
+        var pendingContents = new ObjectSet<String>();
+        var aliases = new Array<String[]>();
+        for (var file : files) {
+            if (!file.exists()) {
+                Gdx.app.error(getClass().getName(), "File does not exist error while creating texture atlas: " + file.path());
+                continue;
+            }
+            
+            var name = DrawableData.proper(file.name());
+            var ninePatch = Utils.isNinePatch(file.name());
+            var pixmap = new Pixmap(file);
+            try {
+                var content = contentKey(pixmap, ninePatch);
+                if (contentRegions.containsKey(content) || pendingContents.contains(content)) {
+                    aliases.add(new String[] {name, content});
+                    continue;
+                }
+                
+                //unique keys allow an image to be packed again after it has changed
+                var key = Integer.toString(packedImages++);
+                names.put(key, name);
+                keyContents.put(key, content);
+                pendingContents.add(content);
+                packer.pack(ninePatch ? key + ".9" : key, pixmap);
+            } finally {
+                pixmap.dispose();
+            }
+        }
+        
+        var regions = atlas.getRegions();
+        int oldSize = regions.size;
+        packer.updateTextureAtlas(atlas, minFilter, magFilter, false, false);
+        
+        var packedNames = new ObjectSet<String>();
+        for (int i = oldSize; i < regions.size; i++) {
+            var region = regions.get(i);
+            contentRegions.put(keyContents.get(region.name), region);
+            region.name = names.get(region.name);
+            packedNames.add(region.name);
+        }
+        
+        for (var alias : aliases) {
+            var region = new AtlasRegion(contentRegions.get(alias[1]));
+            region.name = alias[0];
+            regions.add(region);
+            packedNames.add(region.name);
+        }
+        
+        for (int i = oldSize - 1; i >= 0; i--) {
+            if (packedNames.contains(regions.get(i).name)) regions.removeIndex(i);
+        }
+    }
+    
+    /**
+     * Identifies the pixel data of an image. Two images with the same key are packed into a single region, so the key
+     * uses a cryptographic digest of the pixels instead of a checksum that different images could share.
+     * @param pixmap
+     * @param ninePatch
+     * @return
+     */
+    private static String contentKey(Pixmap pixmap, boolean ninePatch) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(pixmap.getPixels().duplicate());
+            var builder = new StringBuilder();
+            builder.append(pixmap.getWidth()).append("x").append(pixmap.getHeight()).append(":").append(pixmap.getFormat()).append(":");
+            for (var b : digest.digest()) builder.append(String.format("%02x", b));
+            if (ninePatch) builder.append(".9");
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new GdxRuntimeException(e);
+        }
+    }
+    
+    private PixmapPacker createPacker(JsonValue settings) {
+        int padding = Math.max(settings.getInt("paddingX", 2), settings.getInt("paddingY", 2));
+        return new PixmapPacker(settings.getInt("maxWidth", 1024), settings.getInt("maxHeight", 1024),
+                Pixmap.Format.RGBA8888, padding, settings.getBoolean("duplicatePadding", false),
+                new PixmapPacker.SkylineStrategy());
+    }
+    
+    private void disposeAtlas() {
+        contentRegions.clear();
+        atlasCache.reset();
+        
+        if (atlas != null) {
+            atlas.dispose();
+            atlas = null;
+        }
+        
+        if (packer != null) {
+            packer.dispose();
+            packer = null;
+        }
     }
     
     public Array<String> writeAtlas(FileHandle targetFile, FileHandle settingsFile) throws Exception {
         Array<String> warnings = new Array<>();
         targetFile.parent().mkdirs();
-        FileHandle[] oldFiles = targetFile.parent().list(new FilenameFilter() {
-            @Override
-            public boolean accept(File file, String string) {
-                return string.matches(targetFile.nameWithoutExtension() + "\\d*\\.(?i)png");
-            }
-        });
-        for (FileHandle fileHandle : oldFiles) {
-            fileHandle.delete();
-        }
-        targetFile.sibling(targetFile.nameWithoutExtension() + ".atlas").delete();
+        deleteAtlasFiles(targetFile);
         
         Array<FileHandle> files = new Array<>();
+        collectAtlasFiles(files, warnings);
         
-        
+        desktopWorker.texturePack(files, projectData.getSaveFile(), targetFile, settingsFile);
+        return warnings;
+    }
+    
+    private void collectAtlasFiles(Array<FileHandle> files, Array<String> warnings) {
         for (DrawableData drawable : fontDrawables) {
             if (!files.contains(drawable.file, false)) {
                 files.add(drawable.file);
@@ -259,17 +452,44 @@ public class AtlasData implements Json.Serializable {
             var fileHandle = appFolder.child("texturepacker/white-pixel.png");
             files.add(fileHandle);
         }
-        
-        desktopWorker.texturePack(files, projectData.getSaveFile(), targetFile, settingsFile);
-        return warnings;
     }
     
-    public TextureAtlas getAtlas() {
-        TextureAtlas atlas = null;
-        FileHandle atlasFile = Main.appFolder.child("temp/" + projectData.getId() + ".atlas");
-        if (atlasFile.exists()) {
-            atlas = new TextureAtlas(atlasFile);
+    /**
+     * Deletes the atlas file and page images of a previously packed atlas.
+     * @param targetFile
+     */
+    private void deleteAtlasFiles(FileHandle targetFile) {
+        FileHandle[] oldFiles = targetFile.parent().list(new FilenameFilter() {
+            @Override
+            public boolean accept(File file, String string) {
+                return string.matches(targetFile.nameWithoutExtension() + "\\d*\\.(?i)png");
+            }
+        });
+        for (FileHandle fileHandle : oldFiles) {
+            fileHandle.delete();
+        }
+        targetFile.sibling(targetFile.nameWithoutExtension() + ".atlas").delete();
+    }
+    
+    /**
+     * Returns the file that will actually be packed, falling back to the data folder next to the save file if the
+     * original file is missing.
+     * @param file
+     * @return
+     */
+    private FileHandle resolveAtlasFile(FileHandle file) {
+        var saveFile = projectData.getSaveFile();
+        if (!file.exists() && saveFile != null) {
+            return saveFile.sibling(saveFile.nameWithoutExtension() + "_data/" + file.name());
         }
+        return file;
+    }
+    
+    /**
+     * Returns the in-memory preview atlas. The atlas is owned by AtlasData and must not be disposed.
+     * @return
+     */
+    public TextureAtlas getAtlas() {
         return atlas;
     }
     
@@ -289,19 +509,19 @@ public class AtlasData implements Json.Serializable {
     @Override
     public void write(Json json) {
         json.writeValue("atlasCurrent", atlasCurrent);
-        json.writeValue("drawables", drawables, Array.class, DrawableData.class);
-        json.writeValue("fontDrawables", fontDrawables, Array.class, DrawableData.class);
+        json.writeValue("drawables", drawables, NameIndexedArray.class, DrawableData.class);
+        json.writeValue("fontDrawables", fontDrawables, NameIndexedArray.class, DrawableData.class);
     }
 
     @Override
     public void read(Json json, JsonValue jsonData) {
         atlasCurrent = json.readValue("atlasCurrent", Boolean.TYPE, jsonData);
-        drawables = json.readValue("drawables", Array.class, DrawableData.class, jsonData);
-        fontDrawables = json.readValue("fontDrawables", Array.class, DrawableData.class, new Array<DrawableData>(),jsonData);
+        drawables = new NameIndexedArray<DrawableData>(data -> data.name, json.readValue("drawables", Array.class, DrawableData.class, jsonData));
+        fontDrawables = new NameIndexedArray<DrawableData>(data -> data.name, json.readValue("fontDrawables", Array.class, DrawableData.class, new Array<DrawableData>(),jsonData));
         assignDrawableTypes();
     }
     
-    private void assignDrawableTypes() {
+    void assignDrawableTypes() {
         for (DrawableData drawable : drawables) {
             if (drawable.type == null) {
                 if (drawable.tiled) {
@@ -340,17 +560,23 @@ public class AtlasData implements Json.Serializable {
      * @return
      */
     public boolean checkIfDrawableNameExists(String name, DrawableData... exclusions) {
-        var exclusionArray = exclusions != null ? new Array<>(exclusions) : new Array<DrawableData>();
-        boolean returnValue = false;
+        var drawable = drawables.findByName(name);
+        if (drawable == null) return false;
+        if (!isExcluded(drawable, exclusions)) return true;
         
-        for (DrawableData drawable : getDrawables()) {
-            if (!exclusionArray.contains(drawable, true) && drawable.name.equals(name)) {
-                returnValue = true;
-                break;
-            }
+        //the indexed drawable is excluded, so check for another drawable with the same name
+        for (DrawableData other : drawables) {
+            if (other != drawable && other.name.equals(name) && !isExcluded(other, exclusions)) return true;
         }
-        
-        return returnValue;
+        return false;
+    }
+    
+    private static boolean isExcluded(DrawableData drawable, DrawableData... exclusions) {
+        if (exclusions == null) return false;
+        for (var exclusion : exclusions) {
+            if (exclusion == drawable) return true;
+        }
+        return false;
     }
     
     /**
@@ -390,32 +616,19 @@ public class AtlasData implements Json.Serializable {
      * @return
      */
     public boolean checkIfFontDrawableNameExists(String name) {
-        boolean returnValue = false;
-        
-        for (DrawableData drawable : getFontDrawables()) {
-            if (drawable.name.equals(name)) {
-                returnValue = true;
-                break;
-            }
-        }
-        
-        return returnValue;
+        return fontDrawables.containsName(name);
     }
     
     /**
-     * Writes a TextureAtlas based on drawables list. Creates drawables to be
-     * displayed on screen
-     * @return
+     * Updates the texture atlas if it is not current and discards the Drawables created from the previous state of
+     * the atlas and drawable data. Drawables are created again on demand by getDrawablePair().
+     * @return false if the texture atlas could not be written.
      */
     public boolean produceAtlas() {
         try {
             drawablePairs.clear();
             
             if (!atlasData.atlasCurrent) {
-                if (atlas != null) {
-                    atlas.dispose();
-                    atlas = null;
-                }
                 FileHandle defaultsFile = Main.appFolder.child("texturepacker/atlas-internal-settings.json");
                 atlasData.writeAtlas(defaultsFile);
                 atlasData.atlasCurrent = true;
@@ -427,143 +640,6 @@ public class AtlasData implements Json.Serializable {
                     }
                 }
             }
-            atlas = atlasData.getAtlas();
-            
-            var combined = new Array<>(getDrawables());
-            combined.addAll(getFontDrawables());
-            
-            for (DrawableData data : combined) {
-                Drawable drawable;
-                if (data.type == DrawableType.CUSTOM) {
-                    drawable = skin.getDrawable("custom");
-                } else if (data.type == DrawableType.PIXEL) {
-                    drawable = ((TextureRegionDrawable) skin.getDrawable("white")).tint(jsonData.getColorByName(data.tintName).color);
-                    drawable.setMinWidth(data.minWidth);
-                    drawable.setMinHeight(data.minHeight);
-                } else if (data.type == DrawableType.TVG) {
-                    var tvg = tinyVGAssetLoader.load(data.file.read());
-                    var tinyVGDrawable = new TinyVGDrawable(tvg, shapeDrawer);
-                    drawable = tinyVGDrawable;
-                } else if (data.type == DrawableType.TENPATCH) {
-                    var region = atlas.findRegion(DrawableData.proper(data.file.name()));
-                    var tenPatchDrawable = new TenPatchDrawable(data.tenPatchData.horizontalStretchAreas.toArray(),
-                            data.tenPatchData.verticalStretchAreas.toArray(), data.tenPatchData.tile, region);
-                    
-                    drawable = tenPatchDrawable;
-                    
-                    if (tenPatchDrawable.horizontalStretchAreas.length == 0) {
-                        tenPatchDrawable.horizontalStretchAreas = new int[] {0, region.getRegionWidth() - 1};
-                    }
-                    if (tenPatchDrawable.verticalStretchAreas.length == 0) {
-                        tenPatchDrawable.verticalStretchAreas = new int[] {0, region.getRegionHeight() - 1};
-                    }
-                    
-                    for (int i = 0; i < tenPatchDrawable.horizontalStretchAreas.length; i += 2) {
-                        int area = tenPatchDrawable.horizontalStretchAreas[i];
-                        if (area >= tenPatchDrawable.getRegion().getRegionWidth()) {
-                            tenPatchDrawable.horizontalStretchAreas = Arrays.copyOfRange(tenPatchDrawable.horizontalStretchAreas, 0 , Math.max(i - 2, 0));
-                            break;
-                        }
-                        
-                        area = tenPatchDrawable.horizontalStretchAreas[i + 1];
-                        if (area >= tenPatchDrawable.getRegion().getRegionWidth()) {
-                            tenPatchDrawable.horizontalStretchAreas = Arrays.copyOfRange(tenPatchDrawable.horizontalStretchAreas, 0 , Math.max(i - 2, 0));
-                            break;
-                        }
-                    }
-    
-                    for (int i = 0; i < tenPatchDrawable.verticalStretchAreas.length; i += 2) {
-                        int area = tenPatchDrawable.verticalStretchAreas[i];
-                        if (area >= tenPatchDrawable.getRegion().getRegionWidth()) {
-                            tenPatchDrawable.verticalStretchAreas = Arrays.copyOfRange(tenPatchDrawable.verticalStretchAreas, 0 , Math.max(i - 2, 0));
-                            break;
-                        }
-        
-                        area = tenPatchDrawable.verticalStretchAreas[i + 1];
-                        if (area >= tenPatchDrawable.getRegion().getRegionWidth()) {
-                            tenPatchDrawable.verticalStretchAreas = Arrays.copyOfRange(tenPatchDrawable.verticalStretchAreas, 0 , Math.max(i - 2, 0));
-                            break;
-                        }
-                    }
-                    
-                    drawable.setLeftWidth(data.tenPatchData.contentLeft);
-                    drawable.setRightWidth(data.tenPatchData.contentRight);
-                    drawable.setTopHeight(data.tenPatchData.contentTop);
-                    drawable.setBottomHeight(data.tenPatchData.contentBottom);
-                    
-                    if (!MathUtils.isEqual(data.minWidth, -1)) drawable.setMinWidth(data.minWidth);
-                    if (!MathUtils.isEqual(data.minHeight, -1)) drawable.setMinHeight(data.minHeight);
-                    if (data.tenPatchData.colorName != null) ((TenPatchDrawable) drawable).setColor(jsonData.getColorByName(data.tenPatchData.colorName).color);
-                    if (data.tenPatchData.color1Name != null) ((TenPatchDrawable) drawable).setColor1(jsonData.getColorByName(data.tenPatchData.color1Name).color);
-                    if (data.tenPatchData.color2Name != null) ((TenPatchDrawable) drawable).setColor2(jsonData.getColorByName(data.tenPatchData.color2Name).color);
-                    if (data.tenPatchData.color3Name != null) ((TenPatchDrawable) drawable).setColor3(jsonData.getColorByName(data.tenPatchData.color3Name).color);
-                    if (data.tenPatchData.color4Name != null) ((TenPatchDrawable) drawable).setColor4(jsonData.getColorByName(data.tenPatchData.color4Name).color);
-                    ((TenPatchDrawable) drawable).setOffsetX(data.tenPatchData.offsetX);
-                    ((TenPatchDrawable) drawable).setOffsetY(data.tenPatchData.offsetY);
-                    ((TenPatchDrawable) drawable).setOffsetXspeed(data.tenPatchData.offsetXspeed);
-                    ((TenPatchDrawable) drawable).setOffsetYspeed(data.tenPatchData.offsetYspeed);
-                    ((TenPatchDrawable) drawable).setFrameDuration(data.tenPatchData.frameDuration);
-                    ((TenPatchDrawable) drawable).setPlayMode(data.tenPatchData.playMode);
-                    ((TenPatchDrawable) drawable).crushMode = data.tenPatchData.crushMode;
-                    if (data.tenPatchData.regions == null) {
-                        data.tenPatchData.regions = new Array<>();
-                        for (var name : data.tenPatchData.regionNames) {
-                            data.tenPatchData.regions.add(atlas.findRegion(name));
-                        }
-                    }
-                    ((TenPatchDrawable) drawable).setRegions(data.tenPatchData.regions);
-                } else if (data.type == DrawableType.TILED) {
-                    String name = data.file.name();
-                    name = DrawableData.proper(name);
-                    drawable = new TiledDrawable(atlas.findRegion(name));
-                    drawable.setMinWidth(data.minWidth);
-                    drawable.setMinHeight(data.minHeight);
-                    ((TiledDrawable) drawable).getColor().set(jsonData.getColorByName(data.tintName).color);
-                } else if (data.type == DrawableType.NINE_PATCH) {
-                    String name = data.file.name();
-                    name = DrawableData.proper(name);
-                    drawable = new NinePatchDrawable(atlas.createPatch(name));
-                    if (data.tint != null) {
-                        drawable = ((NinePatchDrawable) drawable).tint(data.tint);
-                    } else if (data.tintName != null) {
-                        drawable = ((NinePatchDrawable) drawable).tint(jsonData.getColorByName(data.tintName).color);
-                    }
-                    if (!MathUtils.isEqual(data.minWidth, -1)) drawable.setMinWidth(data.minWidth);
-                    if (!MathUtils.isEqual(data.minHeight, -1)) drawable.setMinHeight(data.minHeight);
-                } else if (data.type == DrawableType.TINTED) {
-                    String name = DrawableData.proper(data.file.name());
-                    if (Utils.isNinePatch(data.file.name())) {
-                        NinePatchDrawable ninePatchDrawable = new NinePatchDrawable(atlas.createPatch(name));
-                        drawable = ninePatchDrawable.tint(data.tint);
-                    }
-                    else {
-                        SpriteDrawable spriteDrawable = new SpriteDrawable(atlas.createSprite(name));
-                        drawable = spriteDrawable.tint(data.tint);
-                    }
-                    if (!MathUtils.isEqual(data.minWidth, -1)) drawable.setMinWidth(data.minWidth);
-                    if (!MathUtils.isEqual(data.minHeight, -1)) drawable.setMinHeight(data.minHeight);
-                } else if (data.type == DrawableType.TINTED_FROM_COLOR_DATA) {
-                    String name = DrawableData.proper(data.file.name());
-                    if (Utils.isNinePatch(data.file.name())) {
-                        NinePatchDrawable ninePatchDrawable = new NinePatchDrawable(atlas.createPatch(name));
-                        drawable = ninePatchDrawable.tint(jsonData.getColorByName(data.tintName).color);
-                    }
-                    else {
-                        SpriteDrawable spriteDrawable = new SpriteDrawable(atlas.createSprite(name));
-                        drawable = spriteDrawable.tint(jsonData.getColorByName(data.tintName).color);
-                    }
-                    if (!MathUtils.isEqual(data.minWidth, -1)) drawable.setMinWidth(data.minWidth);
-                    if (!MathUtils.isEqual(data.minHeight, -1)) drawable.setMinHeight(data.minHeight);
-                } else {
-                    String name = data.file.name();
-                    name = DrawableData.proper(name);
-                    drawable = new SpriteDrawable(atlas.createSprite(name));
-                    if (!MathUtils.isEqual(data.minWidth, -1)) drawable.setMinWidth(data.minWidth);
-                    if (!MathUtils.isEqual(data.minHeight, -1)) drawable.setMinHeight(data.minHeight);
-                }
-                
-                drawablePairs.put(data, drawable);
-            }
             return true;
         } catch (Exception e) {
             Gdx.app.error(getClass().getName(), "Error while attempting to generate drawables.", e);
@@ -572,7 +648,166 @@ public class AtlasData implements Json.Serializable {
         }
     }
     
-    public ObjectMap<DrawableData, Drawable> getDrawablePairs() {
-        return drawablePairs;
+    /**
+     * Returns the Drawable for the given drawable data. It is created the first time it is requested after the atlas
+     * has been produced and reused until the next call to produceAtlas().
+     * @param data
+     * @return The Drawable or null if it could not be created.
+     */
+    public Drawable getDrawablePair(DrawableData data) {
+        if (data == null) return null;
+        if (drawablePairs.containsKey(data)) return drawablePairs.get(data);
+        
+        Drawable drawable = null;
+        try {
+            drawable = createDrawable(data);
+        } catch (Exception e) {
+            Gdx.app.error(getClass().getName(), "Error while attempting to generate drawable: " + data.name, e);
+            dialogFactory.showDialogError("Atlas Error...","Error while attempting to generate drawables.\n\nOpen log?");
+        }
+        
+        //failures are stored too so the error is only reported once
+        drawablePairs.put(data, drawable);
+        return drawable;
+    }
+    
+    /**
+     * @return The Drawables that have been created since the last call to produceAtlas().
+     */
+    public ObjectMap.Values<Drawable> getCreatedDrawables() {
+        return drawablePairs.values();
+    }
+    
+    private Drawable createDrawable(DrawableData data) {
+        Drawable drawable;
+        if (data.type == DrawableType.CUSTOM) {
+            drawable = skin.getDrawable("custom");
+        } else if (data.type == DrawableType.PIXEL) {
+            drawable = ((TextureRegionDrawable) skin.getDrawable("white")).tint(jsonData.getColorByName(data.tintName).color);
+            drawable.setMinWidth(data.minWidth);
+            drawable.setMinHeight(data.minHeight);
+        } else if (data.type == DrawableType.TVG) {
+            var tvg = tinyVGAssetLoader.load(data.file.read());
+            var tinyVGDrawable = new TinyVGDrawable(tvg, shapeDrawer);
+            drawable = tinyVGDrawable;
+        } else if (data.type == DrawableType.TENPATCH) {
+            var region = atlas.findRegion(DrawableData.proper(data.file.name()));
+            var tenPatchDrawable = new TenPatchDrawable(data.tenPatchData.horizontalStretchAreas.toArray(),
+                    data.tenPatchData.verticalStretchAreas.toArray(), data.tenPatchData.tile, region);
+            
+            drawable = tenPatchDrawable;
+            
+            if (tenPatchDrawable.horizontalStretchAreas.length == 0) {
+                tenPatchDrawable.horizontalStretchAreas = new int[] {0, region.getRegionWidth() - 1};
+            }
+            if (tenPatchDrawable.verticalStretchAreas.length == 0) {
+                tenPatchDrawable.verticalStretchAreas = new int[] {0, region.getRegionHeight() - 1};
+            }
+            
+            for (int i = 0; i < tenPatchDrawable.horizontalStretchAreas.length; i += 2) {
+                int area = tenPatchDrawable.horizontalStretchAreas[i];
+                if (area >= tenPatchDrawable.getRegion().getRegionWidth()) {
+                    tenPatchDrawable.horizontalStretchAreas = Arrays.copyOfRange(tenPatchDrawable.horizontalStretchAreas, 0 , Math.max(i - 2, 0));
+                    break;
+                }
+                
+                area = tenPatchDrawable.horizontalStretchAreas[i + 1];
+                if (area >= tenPatchDrawable.getRegion().getRegionWidth()) {
+                    tenPatchDrawable.horizontalStretchAreas = Arrays.copyOfRange(tenPatchDrawable.horizontalStretchAreas, 0 , Math.max(i - 2, 0));
+                    break;
+                }
+            }
+    
+            for (int i = 0; i < tenPatchDrawable.verticalStretchAreas.length; i += 2) {
+                int area = tenPatchDrawable.verticalStretchAreas[i];
+                if (area >= tenPatchDrawable.getRegion().getRegionWidth()) {
+                    tenPatchDrawable.verticalStretchAreas = Arrays.copyOfRange(tenPatchDrawable.verticalStretchAreas, 0 , Math.max(i - 2, 0));
+                    break;
+                }
+
+                area = tenPatchDrawable.verticalStretchAreas[i + 1];
+                if (area >= tenPatchDrawable.getRegion().getRegionWidth()) {
+                    tenPatchDrawable.verticalStretchAreas = Arrays.copyOfRange(tenPatchDrawable.verticalStretchAreas, 0 , Math.max(i - 2, 0));
+                    break;
+                }
+            }
+            
+            drawable.setLeftWidth(data.tenPatchData.contentLeft);
+            drawable.setRightWidth(data.tenPatchData.contentRight);
+            drawable.setTopHeight(data.tenPatchData.contentTop);
+            drawable.setBottomHeight(data.tenPatchData.contentBottom);
+            
+            if (!MathUtils.isEqual(data.minWidth, -1)) drawable.setMinWidth(data.minWidth);
+            if (!MathUtils.isEqual(data.minHeight, -1)) drawable.setMinHeight(data.minHeight);
+            if (data.tenPatchData.colorName != null) ((TenPatchDrawable) drawable).setColor(jsonData.getColorByName(data.tenPatchData.colorName).color);
+            if (data.tenPatchData.color1Name != null) ((TenPatchDrawable) drawable).setColor1(jsonData.getColorByName(data.tenPatchData.color1Name).color);
+            if (data.tenPatchData.color2Name != null) ((TenPatchDrawable) drawable).setColor2(jsonData.getColorByName(data.tenPatchData.color2Name).color);
+            if (data.tenPatchData.color3Name != null) ((TenPatchDrawable) drawable).setColor3(jsonData.getColorByName(data.tenPatchData.color3Name).color);
+            if (data.tenPatchData.color4Name != null) ((TenPatchDrawable) drawable).setColor4(jsonData.getColorByName(data.tenPatchData.color4Name).color);
+            ((TenPatchDrawable) drawable).setOffsetX(data.tenPatchData.offsetX);
+            ((TenPatchDrawable) drawable).setOffsetY(data.tenPatchData.offsetY);
+            ((TenPatchDrawable) drawable).setOffsetXspeed(data.tenPatchData.offsetXspeed);
+            ((TenPatchDrawable) drawable).setOffsetYspeed(data.tenPatchData.offsetYspeed);
+            ((TenPatchDrawable) drawable).setFrameDuration(data.tenPatchData.frameDuration);
+            ((TenPatchDrawable) drawable).setPlayMode(data.tenPatchData.playMode);
+            ((TenPatchDrawable) drawable).crushMode = data.tenPatchData.crushMode;
+            if (data.tenPatchData.regions == null) {
+                data.tenPatchData.regions = new Array<>();
+                for (var name : data.tenPatchData.regionNames) {
+                    data.tenPatchData.regions.add(atlas.findRegion(name));
+                }
+            }
+            ((TenPatchDrawable) drawable).setRegions(data.tenPatchData.regions);
+        } else if (data.type == DrawableType.TILED) {
+            String name = data.file.name();
+            name = DrawableData.proper(name);
+            drawable = new TiledDrawable(atlas.findRegion(name));
+            drawable.setMinWidth(data.minWidth);
+            drawable.setMinHeight(data.minHeight);
+            ((TiledDrawable) drawable).getColor().set(jsonData.getColorByName(data.tintName).color);
+        } else if (data.type == DrawableType.NINE_PATCH) {
+            String name = data.file.name();
+            name = DrawableData.proper(name);
+            drawable = new NinePatchDrawable(atlas.createPatch(name));
+            if (data.tint != null) {
+                drawable = ((NinePatchDrawable) drawable).tint(data.tint);
+            } else if (data.tintName != null) {
+                drawable = ((NinePatchDrawable) drawable).tint(jsonData.getColorByName(data.tintName).color);
+            }
+            if (!MathUtils.isEqual(data.minWidth, -1)) drawable.setMinWidth(data.minWidth);
+            if (!MathUtils.isEqual(data.minHeight, -1)) drawable.setMinHeight(data.minHeight);
+        } else if (data.type == DrawableType.TINTED) {
+            String name = DrawableData.proper(data.file.name());
+            if (Utils.isNinePatch(data.file.name())) {
+                NinePatchDrawable ninePatchDrawable = new NinePatchDrawable(atlas.createPatch(name));
+                drawable = ninePatchDrawable.tint(data.tint);
+            }
+            else {
+                SpriteDrawable spriteDrawable = new SpriteDrawable(atlas.createSprite(name));
+                drawable = spriteDrawable.tint(data.tint);
+            }
+            if (!MathUtils.isEqual(data.minWidth, -1)) drawable.setMinWidth(data.minWidth);
+            if (!MathUtils.isEqual(data.minHeight, -1)) drawable.setMinHeight(data.minHeight);
+        } else if (data.type == DrawableType.TINTED_FROM_COLOR_DATA) {
+            String name = DrawableData.proper(data.file.name());
+            if (Utils.isNinePatch(data.file.name())) {
+                NinePatchDrawable ninePatchDrawable = new NinePatchDrawable(atlas.createPatch(name));
+                drawable = ninePatchDrawable.tint(jsonData.getColorByName(data.tintName).color);
+            }
+            else {
+                SpriteDrawable spriteDrawable = new SpriteDrawable(atlas.createSprite(name));
+                drawable = spriteDrawable.tint(jsonData.getColorByName(data.tintName).color);
+            }
+            if (!MathUtils.isEqual(data.minWidth, -1)) drawable.setMinWidth(data.minWidth);
+            if (!MathUtils.isEqual(data.minHeight, -1)) drawable.setMinHeight(data.minHeight);
+        } else {
+            String name = data.file.name();
+            name = DrawableData.proper(name);
+            drawable = new SpriteDrawable(atlas.createSprite(name));
+            if (!MathUtils.isEqual(data.minWidth, -1)) drawable.setMinWidth(data.minWidth);
+            if (!MathUtils.isEqual(data.minHeight, -1)) drawable.setMinHeight(data.minHeight);
+        }
+        
+        return drawable;
     }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2022 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.data;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.ray3k.skincomposer.utils.Utils;
+
+/**
+ * Records the inputs of the last packed preview atlas. Used by AtlasData to determine which images have changed since
+ * the last pack so that unchanged pages can be kept.
+ */
+public class AtlasManifest {
+    public int projectId;
+    public long settingsChecksum;
+    public ObjectMap<String, FileRecord> records = new ObjectMap<>();
+    /**
+     * The number of images that have been replaced or removed since the last full pack. Their area in the pages can
+     * not be reused.
+     */
+    public int staleImages;
+    
+    public static class FileRecord {
+        public long length;
+        public long lastModified;
+        public long checksum;
+    
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof FileRecord) {
+                var other = (FileRecord) obj;
+                return length == other.length && checksum == other.checksum;
+            }
+            return false;
+        }
+    
+        @Override
+        public int hashCode() {
+            return Long.hashCode(checksum);
+        }
+    }
+    
+    /**
+     * Creates a record of the file's current state. The checksum of the previous record is reused if the file length
+     * and modification time have not changed to avoid reading the file again.
+     * @param file
+     * @return
+     */
+    public FileRecord createRecord(FileHandle file) {
+        var record = new FileRecord();
+        if (!file.exists()) return record;
+        
+        record.length = file.length();
+        record.lastModified = file.lastModified();
+        
+        var previous = records.get(file.path());
+        if (previous != null && previous.length == record.length && previous.lastModified == record.lastModified) {
+            record.checksum = previous.checksum;
+        } else {
+            record.checksum = Utils.fileChecksum(file);
+        }
+        return record;
+    }
+}
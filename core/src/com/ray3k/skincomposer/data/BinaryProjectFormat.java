@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2022 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.data;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonWriter;
+import com.badlogic.gdx.utils.SerializationException;
+import com.badlogic.gdx.utils.UBJsonReader;
+import com.badlogic.gdx.utils.UBJsonWriter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The binary project format. It holds exactly the values that the Json.Serializable hooks of ProjectData and the
+ * classes it contains write to an SCMP file, encoded as UBJSON after a short header. A project converts losslessly
+ * between the two formats by loading it and saving it with the other extension.
+ */
+public class BinaryProjectFormat {
+    public static final String EXTENSION = "scmpb";
+    private static final byte[] MAGIC = {'S', 'C', 'M', 'P', 'B'};
+    /**
+     * Incremented whenever the structure of the binary format changes. Files of older versions must be upgraded in
+     * read().
+     */
+    public static final int FORMAT_VERSION = 1;
+    
+    public static boolean isBinaryExtension(FileHandle file) {
+        return file.extension().toLowerCase(Locale.ROOT).equals(EXTENSION);
+    }
+    
+    /**
+     * Checks the header of the file instead of relying on the extension.
+     * @param file
+     * @return
+     */
+    public static boolean isBinary(FileHandle file) {
+        if (!file.exists() || file.length() < MAGIC.length) return false;
+        try (var input = file.read()) {
+            var header = new byte[MAGIC.length];
+            return input.readNBytes(header, 0, header.length) == header.length && Arrays.equals(header, MAGIC);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Serializes the project with the given Json instance. The stream is closed.
+     * @param json
+     * @param project
+     * @param output
+     * @throws IOException
+     */
+    public static void write(Json json, Object project, OutputStream output) throws IOException {
+        var dataOutput = new DataOutputStream(new BufferedOutputStream(output));
+        try (var writer = new UBJsonAdapter(dataOutput)) {
+            dataOutput.write(MAGIC);
+            dataOutput.writeInt(FORMAT_VERSION);
+            
+            //Json.toJson() closes the writer quietly, which would hide errors while flushing the file
+            json.setWriter(writer);
+            json.writeValue(project, project.getClass(), null);
+            writer.flush();
+        }
+    }
+    
+    /**
+     * Reads a binary project. The stream is closed.
+     * @param input
+     * @return The project values in the same layout as an SCMP file.
+     * @throws IOException
+     */
+    public static JsonValue read(InputStream input) throws IOException {
+        try (var dataInput = new DataInputStream(new BufferedInputStream(input))) {
+            var header = new byte[MAGIC.length];
+            dataInput.readFully(header);
+            if (!Arrays.equals(header, MAGIC)) throw new SerializationException("Not a binary Skin Composer project.");
+            
+            int version = dataInput.readInt();
+            if (version > FORMAT_VERSION) {
+                throw new SerializationException("The project was saved with a newer binary format (" + version + ") than this version of Skin Composer supports (" + FORMAT_VERSION + ").");
+            }
+            
+            //older format versions are upgraded here, one version at a time, when the format changes
+            return new UBJsonReader().parse(dataInput);
+        }
+    }
+    
+    /**
+     * Lets Json write UBJSON through the same calls it uses for text.
+     */
+    private static class UBJsonAdapter extends JsonWriter {
+        private final UBJsonWriter writer;
+        
+        public UBJsonAdapter(OutputStream output) {
+            super(Writer.nullWriter());
+            writer = new UBJsonWriter(output);
+        }
+        
+        @Override
+        public JsonWriter name(String name) throws IOException {
+            writer.name(name);
+            return this;
+        }
+        
+        @Override
+        public JsonWriter object() throws IOException {
+            writer.object();
+            return this;
+        }
+        
+        @Override
+        public JsonWriter array() throws IOException {
+            writer.array();
+            return this;
+        }
+        
+        @Override
+        public JsonWriter value(Object value) throws IOException {
+            if (value instanceof Boolean) {
+                writer.value((boolean) value);
+            } else {
+                writer.value(value);
+            }
+            return this;
+        }
+        
+        @Override
+        public JsonWriter json(String json) throws IOException {
+            writer.value(new JsonReader().parse(json));
+            return this;
+        }
+        
+        @Override
+        public JsonWriter object(String name) throws IOException {
+            writer.object(name);
+            return this;
+        }
+        
+        @Override
+        public JsonWriter array(String name) throws IOException {
+            writer.array(name);
+            return this;
+        }
+        
+        @Override
+        public JsonWriter set(String name, Object value) throws IOException {
+            name(name);
+            return value(value);
+        }
+        
+        @Override
+        public JsonWriter json(String name, String json) throws IOException {
+            name(name);
+            return json(json);
+        }
+        
+        @Override
+        public JsonWriter pop() throws IOException {
+            writer.pop();
+            return this;
+        }
+        
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+}
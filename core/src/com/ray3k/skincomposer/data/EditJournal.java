@@ -0,0 +1,465 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2022 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.data;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonValue.ValueType;
+import com.badlogic.gdx.utils.JsonWriter;
+import com.badlogic.gdx.utils.JsonWriter.OutputType;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.badlogic.gdx.utils.OrderedMap;
+import com.badlogic.gdx.utils.SerializationException;
+import com.ray3k.skincomposer.utils.Utils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only journal of the edits made since the project was last saved. It is kept next to the project file so
+ * that the edits can be replayed onto the saved project after a crash. The project is divided into segments, such as
+ * the styles of one class or the list of colors. After every edit, only the segments touched by the edit are compared
+ * with their last recorded state and only the ones that changed are written to the journal. The journal is compacted
+ * into a single checkpoint record every CHECKPOINT_RECORDS records and it is restarted whenever the project is saved.
+ * All file access happens on the given executor in the order it is requested, which allows it to follow the background
+ * saves of ProjectData.
+ */
+public class EditJournal {
+    public static final String EXTENSION = "journal";
+    private static final byte[] MAGIC = {'S', 'C', 'M', 'P', 'J'};
+    private static final int FORMAT_VERSION = 1;
+    private static final int CHECKPOINT_RECORDS = 200;
+    private final ProjectData projectData;
+    private final Json json;
+    private final Executor executor;
+    private FileHandle projectFile;
+    private FileHandle journalFile;
+    /**
+     * The hash of every segment as it was last written to the journal or the project file.
+     */
+    private final ObjectMap<String, Long> hashes = new ObjectMap<>();
+    /**
+     * The latest value of every segment that changed since the project was saved. Written out when compacting.
+     */
+    private final OrderedMap<String, String> changedSegments = new OrderedMap<>();
+    private int records;
+    /**
+     * The class of the style that holds each style property. Rebuilt when a property is not found.
+     */
+    private final IdentityMap<StyleProperty, Class> propertyClasses = new IdentityMap<>();
+    
+    public EditJournal(ProjectData projectData, Json json, Executor executor) {
+        this.projectData = projectData;
+        this.json = json;
+        this.executor = executor;
+    }
+    
+    public static FileHandle getJournalFile(FileHandle projectFile) {
+        return projectFile.sibling(projectFile.name() + "." + EXTENSION);
+    }
+    
+    /**
+     * Starts a new journal for the project file. The current state of the project is the base that later edits are
+     * compared against. Must be called on the GL thread.
+     * @param projectFile
+     * @param recoveredSegments Segments that were recovered from a previous journal and are not in the project file
+     *                          yet. May be null.
+     */
+    public void start(FileHandle projectFile, OrderedMap<String, JsonValue> recoveredSegments) {
+        stop();
+        this.projectFile = projectFile;
+        journalFile = getJournalFile(projectFile);
+        
+        visitSegments((path, value, knownType, elementType) -> hashes.put(path, hash(value, knownType, elementType)));
+        if (recoveredSegments != null) {
+            for (var entry : recoveredSegments) {
+                changedSegments.put(entry.key, entry.value.toJson(OutputType.minimal));
+            }
+        }
+        writeCheckpoint();
+    }
+    
+    /**
+     * Deletes the journal and stops recording. Called when the changes since the last save are saved or discarded.
+     */
+    public void stop() {
+        if (journalFile != null) {
+            var file = journalFile;
+            executor.execute(file::delete);
+        }
+        projectFile = null;
+        journalFile = null;
+        hashes.clear();
+        propertyClasses.clear();
+        changedSegments.clear();
+        records = 0;
+    }
+    
+    /**
+     * Appends the segments that changed since the previous record. Must be called on the GL thread after an edit has
+     * been applied to the project.
+     * @param label A description of the edit.
+     * @param changedData The data changed by the edit, such as a DrawableData, a ColorData, a StyleProperty or one of
+     *                    the lists of the project. Only the segments holding it are compared. Every segment is compared
+     *                    if it is null or unknown.
+     */
+    public void record(String label, Object... changedData) {
+        if (journalFile == null) return;
+        
+        var changedPaths = findSegments(changedData);
+        var changes = new OrderedMap<String, String>();
+        visitSegments((path, value, knownType, elementType) -> {
+            if (changedPaths != null && !changedPaths.contains(path)) return;
+            long hash = hash(value, knownType, elementType);
+            Long previousHash = hashes.get(path);
+            if (previousHash == null || previousHash != hash) {
+                hashes.put(path, hash);
+                changes.put(path, json.toJson(value, knownType, elementType));
+            }
+        });
+        if (changes.size == 0) return;
+        changedSegments.putAll(changes);
+        
+        records++;
+        if (records >= CHECKPOINT_RECORDS) {
+            writeCheckpoint();
+        } else {
+            var file = journalFile;
+            var payload = createPayload(label, changes);
+            executor.execute(() -> {
+                try (var output = new FileOutputStream(file.file(), true)) {
+                    //a single write keeps the record from being split between the header and the payload
+                    var bytes = new ByteArrayOutputStream(payload.length + 8);
+                    writeRecord(new DataOutputStream(bytes), payload);
+                    bytes.writeTo(output);
+                    output.getFD().sync();
+                } catch (IOException e) {
+                    Gdx.app.error(EditJournal.class.getName(), "Error while writing edit journal: " + file.path(), e);
+                }
+            });
+        }
+    }
+    
+    /**
+     * Rewrites the journal as a single record holding every segment that changed since the project was saved.
+     */
+    private void writeCheckpoint() {
+        records = 0;
+        var file = journalFile;
+        var project = projectFile;
+        var payload = changedSegments.size > 0 ? createPayload("Checkpoint", changedSegments) : null;
+        executor.execute(() -> {
+            try {
+                var bytes = new ByteArrayOutputStream();
+                var dataOutput = new DataOutputStream(bytes);
+                dataOutput.write(MAGIC);
+                dataOutput.writeInt(FORMAT_VERSION);
+                dataOutput.writeLong(project.length());
+                dataOutput.writeLong(project.lastModified());
+                if (payload != null) writeRecord(dataOutput, payload);
+                Utils.writeAtomically(file, bytes.toByteArray());
+            } catch (IOException e) {
+                Gdx.app.error(EditJournal.class.getName(), "Error while writing edit journal: " + file.path(), e);
+            }
+        });
+    }
+    
+    private static byte[] createPayload(String label, OrderedMap<String, String> segments) {
+        var buffer = new StringWriter();
+        var writer = new JsonWriter(buffer);
+        writer.setOutputType(OutputType.minimal);
+        try {
+            writer.object();
+            writer.set("label", label);
+            writer.object("changes");
+            for (var entry : segments) {
+                writer.json(entry.key, entry.value);
+            }
+            writer.pop();
+            writer.pop();
+        } catch (IOException e) {
+            throw new SerializationException(e);
+        }
+        return buffer.toString().getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private static void writeRecord(DataOutputStream output, byte[] payload) throws IOException {
+        var crc = new CRC32();
+        crc.update(payload);
+        output.writeInt(payload.length);
+        output.writeInt((int) crc.getValue());
+        output.write(payload);
+    }
+    
+    /**
+     * Reads the segments recorded in the journal of the project file. Records that were not completely written before
+     * a crash are ignored. Must not be called while the journal is being written.
+     * @param projectFile
+     * @return The latest value of every recorded segment or null if there is no journal for this version of the
+     * project file.
+     */
+    public static OrderedMap<String, JsonValue> read(FileHandle projectFile) {
+        var journalFile = getJournalFile(projectFile);
+        if (!journalFile.exists() || !projectFile.exists()) return null;
+        
+        var segments = new OrderedMap<String, JsonValue>();
+        try (var input = new DataInputStream(new BufferedInputStream(journalFile.read()))) {
+            var header = new byte[MAGIC.length];
+            input.readFully(header);
+            if (!Arrays.equals(header, MAGIC) || input.readInt() > FORMAT_VERSION) return null;
+            
+            //the journal belongs to a different version of the project file
+            if (input.readLong() != projectFile.length() || input.readLong() != projectFile.lastModified()) return null;
+            
+            var crc = new CRC32();
+            //a header that was cut off by a crash is ignored like a torn payload
+            while (input.available() >= 8) {
+                int length = input.readInt();
+                int checksum = input.readInt();
+                if (length < 0 || length > input.available()) break;
+                var payload = new byte[length];
+                input.readFully(payload);
+                
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) break;
+                
+                var changes = new JsonReader().parse(new String(payload, StandardCharsets.UTF_8)).get("changes");
+                for (var segment = changes.child; segment != null; segment = segment.next) {
+                    segments.put(segment.name, segment);
+                }
+            }
+        } catch (IOException | SerializationException e) {
+            Gdx.app.error(EditJournal.class.getName(), "Error while reading edit journal: " + journalFile.path(), e);
+            return null;
+        }
+        return segments.size > 0 ? segments : null;
+    }
+    
+    /**
+     * Replaces the segments in the values of a project file. The order of the values is kept.
+     * @param project
+     * @param segments
+     */
+    public static void apply(JsonValue project, OrderedMap<String, JsonValue> segments) {
+        for (var entry : segments) {
+            var names = entry.key.split("/", 3);
+            var parent = project;
+            for (int i = 0; i < names.length - 1; i++) {
+                var child = parent.get(names[i]);
+                if (child == null) {
+                    child = new JsonValue(ValueType.object);
+                    replaceChild(parent, names[i], child);
+                }
+                parent = child;
+            }
+            replaceChild(parent, names[names.length - 1], entry.value);
+        }
+    }
+    
+    private static void replaceChild(JsonValue parent, String name, JsonValue value) {
+        value.name = name;
+        value.parent = parent;
+        var old = parent.get(name);
+        if (old == null) {
+            value.next = null;
+            value.prev = null;
+            parent.addChild(value);
+            return;
+        }
+        
+        value.prev = old.prev;
+        value.next = old.next;
+        if (old.prev == null) parent.child = value;
+        else old.prev.next = value;
+        if (old.next != null) old.next.prev = value;
+    }
+    
+    /**
+     * Lists the segments of the project with the types they are written with by the Json.Serializable hooks of
+     * ProjectData, JsonData and AtlasData, so that a recorded segment can be read like the rest of the project file.
+     * The scene composer has its own undo history and is not recorded.
+     * @param visitor
+     */
+    private void visitSegments(SegmentVisitor visitor) {
+        var jsonData = projectData.getJsonData();
+        var atlasData = projectData.getAtlasData();
+        
+        visitor.visit("atlasData/drawables", atlasData.getDrawables(), NameIndexedArray.class, DrawableData.class);
+        visitor.visit("atlasData/fontDrawables", atlasData.getFontDrawables(), NameIndexedArray.class, DrawableData.class);
+        visitor.visit("jsonData/colors", jsonData.getColors(), jsonData.getColors().getClass(), null);
+        visitor.visit("jsonData/fonts", jsonData.getFonts(), jsonData.getFonts().getClass(), null);
+        visitor.visit("jsonData/freeTypeFonts", jsonData.getFreeTypeFonts(), jsonData.getFreeTypeFonts().getClass(), null);
+        for (var entry : jsonData.getClassStyleMap()) {
+            visitor.visit("jsonData/classStyleMap/" + entry.key.getName(), entry.value, null, null);
+        }
+        visitor.visit("jsonData/customClasses", jsonData.getCustomClasses(), Array.class, CustomClass.class);
+        visitor.visit("preferences", projectData.getPreferences(), ObjectMap.class, null);
+    }
+    
+    /**
+     * Finds the segments that hold the given data.
+     * @param changedData
+     * @return The paths of the segments or null if any of the data is unknown or could be in any segment.
+     */
+    private ObjectSet<String> findSegments(Object[] changedData) {
+        if (changedData == null || changedData.length == 0) return null;
+        
+        var jsonData = projectData.getJsonData();
+        var atlasData = projectData.getAtlasData();
+        var paths = new ObjectSet<String>();
+        for (var data : changedData) {
+            if (data instanceof Class) {
+                if (!jsonData.getClassStyleMap().containsKey((Class) data)) return null;
+                paths.add("jsonData/classStyleMap/" + ((Class) data).getName());
+            } else if (data instanceof StyleData) {
+                if (!jsonData.getClassStyleMap().containsKey(((StyleData) data).clazz)) return null;
+                paths.add("jsonData/classStyleMap/" + ((StyleData) data).clazz.getName());
+            } else if (data instanceof StyleProperty) {
+                var clazz = findStyleClass((StyleProperty) data);
+                if (clazz == null) return null;
+                paths.add("jsonData/classStyleMap/" + clazz.getName());
+            } else if (data == jsonData.getClassStyleMap()) {
+                for (var clazz : jsonData.getClassStyleMap().keys()) {
+                    paths.add("jsonData/classStyleMap/" + clazz.getName());
+                }
+            } else if (data instanceof CustomClass || data instanceof CustomProperty || data instanceof CustomStyle
+                    || data == jsonData.getCustomClasses()) {
+                paths.add("jsonData/customClasses");
+            } else if (data instanceof DrawableData || data == atlasData.getDrawables()
+                    || data == atlasData.getFontDrawables()) {
+                //font drawables are kept in their own list, which may be the one holding the drawable
+                paths.add("atlasData/drawables");
+                paths.add("atlasData/fontDrawables");
+            } else if (data instanceof ColorData || data == jsonData.getColors()) {
+                paths.add("jsonData/colors");
+            } else if (data instanceof FontData || data == jsonData.getFonts()) {
+                //every font has a drawable for its preview
+                paths.add("jsonData/fonts");
+                paths.add("atlasData/fontDrawables");
+            } else if (data instanceof FreeTypeFontData || data == jsonData.getFreeTypeFonts()) {
+                paths.add("jsonData/freeTypeFonts");
+            } else if (data == projectData.getPreferences()) {
+                paths.add("preferences");
+            } else {
+                return null;
+            }
+        }
+        return paths;
+    }
+    
+    /**
+     * Finds the class of the style that holds the property. The index is only rebuilt when the property was added
+     * after it was last built.
+     * @param property
+     * @return The class or null if the property is not in any style.
+     */
+    private Class findStyleClass(StyleProperty property) {
+        var clazz = propertyClasses.get(property);
+        if (clazz == null) {
+            propertyClasses.clear();
+            for (var entry : projectData.getJsonData().getClassStyleMap()) {
+                for (var style : entry.value) {
+                    for (var styleProperty : style.properties.values()) {
+                        propertyClasses.put(styleProperty, entry.key);
+                    }
+                }
+            }
+            clazz = propertyClasses.get(property);
+        }
+        return clazz;
+    }
+    
+    private interface SegmentVisitor {
+        void visit(String path, Object value, Class knownType, Class elementType);
+    }
+    
+    /**
+     * Hashes the serialized value without keeping the text.
+     * @param value
+     * @param knownType
+     * @param elementType
+     * @return
+     */
+    private long hash(Object value, Class knownType, Class elementType) {
+        var writer = new HashWriter();
+        json.toJson(value, knownType, elementType, writer);
+        return writer.hash;
+    }
+    
+    /**
+     * Computes the 64-bit FNV-1a hash of the characters written to it.
+     */
+    private static class HashWriter extends Writer {
+        private long hash = 0xcbf29ce484222325L;
+        
+        @Override
+        public void write(int c) {
+            hash ^= c;
+            hash *= 0x100000001b3L;
+        }
+        
+        @Override
+        public void write(String str, int off, int len) {
+            for (int i = off, n = off + len; i < n; i++) {
+                hash ^= str.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+        }
+        
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            for (int i = off, n = off + len; i < n; i++) {
+                hash ^= cbuf[i];
+                hash *= 0x100000001b3L;
+            }
+        }
+        
+        @Override
+        public void flush() {
+        
+        }
+        
+        @Override
+        public void close() {
+        
+        }
+    }
+}
@@ -0,0 +1,402 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2022 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.data;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.BitmapFontData;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
+import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
+import com.badlogic.gdx.graphics.glutils.PixmapTextureData;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.ray3k.skincomposer.utils.Utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.ray3k.skincomposer.Main.appFolder;
+
+/**
+ * Shares FreeTypeFontGenerators and generated fonts between FreeTypeFontData instances. Generators are pooled per font
+ * file so a TTF is not parsed again for every size and variant created from it. Each generator has its own FreeType
+ * library and is handed to one user at a time, so generators can be used from several threads at once. Generated fonts
+ * are cached per font file and parameter combination so identical configurations are only rasterized once per session.
+ * Fonts rasterized by obtainFonts() are also written to a FreeTypeFontDiskCache so they are not generated again in later
+ * sessions. Fonts obtained one at a time, such as previews, are only read from it so the GL thread is not kept waiting.
+ * Entries that are no longer referenced are kept for reuse up to a limit and disposed after that.
+ */
+public class FreeTypeFontCache {
+    private static final int MAX_IDLE_GENERATORS = 4;
+    private static final int MAX_IDLE_FONTS = 16;
+    private static final Array<GeneratorEntry> idleGenerators = new Array<>();
+    private static final ObjectMap<FreeTypeFontGenerator, GeneratorEntry> busyGenerators = new ObjectMap<>();
+    private static final ObjectMap<String, FontEntry> fonts = new ObjectMap<>();
+    private static final ObjectMap<BitmapFont, FontEntry> fontEntries = new ObjectMap<>();
+    private static final Array<FontEntry> idleFonts = new Array<>();
+    private static final ObjectMap<String, Long> checksums = new ObjectMap<>();
+    private static FreeTypeFontDiskCache diskCache;
+    
+    private static class GeneratorEntry {
+        String key;
+        FreeTypeFontGenerator generator;
+    }
+    
+    private static class FontEntry {
+        String key;
+        /**
+         * The generated font. It owns the textures and is only disposed when the entry is removed from the cache.
+         */
+        BitmapFont font;
+        int references;
+    }
+    
+    private static class RasterizedFont {
+        String key;
+        FileHandle file;
+        FreeTypeFontParameter parameter;
+        int distanceFieldSpread;
+        BitmapFontData data;
+        Array<Pixmap> pages = new Array<>();
+    }
+    
+    /**
+     * Returns a generator for the font file that is not in use by anyone else. It must be returned with freeGenerator()
+     * instead of being disposed.
+     * @param file
+     * @return
+     */
+    public static FreeTypeFontGenerator obtainGenerator(FileHandle file) {
+        var key = fileKey(file);
+        synchronized (FreeTypeFontCache.class) {
+            for (int i = idleGenerators.size - 1; i >= 0; i--) {
+                var entry = idleGenerators.get(i);
+                if (entry.key.equals(key)) {
+                    idleGenerators.removeIndex(i);
+                    busyGenerators.put(entry.generator, entry);
+                    return entry.generator;
+                }
+            }
+        }
+        
+        //the font file is parsed outside of the lock so workers can load different files at the same time
+        var entry = new GeneratorEntry();
+        entry.key = key;
+        entry.generator = new FreeTypeFontGenerator(file);
+        synchronized (FreeTypeFontCache.class) {
+            busyGenerators.put(entry.generator, entry);
+        }
+        return entry.generator;
+    }
+    
+    public static synchronized void freeGenerator(FreeTypeFontGenerator generator) {
+        var entry = busyGenerators.remove(generator);
+        if (entry == null) {
+            generator.dispose();
+            return;
+        }
+        
+        idleGenerators.add(entry);
+        while (idleGenerators.size > MAX_IDLE_GENERATORS) {
+            idleGenerators.removeIndex(0).generator.dispose();
+        }
+    }
+    
+    /**
+     * Returns a font generated from the file with the given parameters. A font that was generated with the same file and
+     * parameters before is reused. The returned font shares its textures and font data with the cached font and must
+     * be returned with freeFont() instead of being disposed.
+     * @param file
+     * @param parameter
+     * @return
+     */
+    public static BitmapFont obtainFont(FileHandle file, FreeTypeFontParameter parameter) {
+        return obtainFont(file, parameter, 0);
+    }
+    
+    /**
+     * Returns a font generated from the file with the given parameters like obtainFont(FileHandle,
+     * FreeTypeFontParameter). If distanceFieldSpread is greater than 0, the glyph pages are converted to a signed
+     * distance field with that spread.
+     * @param file
+     * @param parameter
+     * @param distanceFieldSpread
+     * @return
+     */
+    public static synchronized BitmapFont obtainFont(FileHandle file, FreeTypeFontParameter parameter, int distanceFieldSpread) {
+        var key = fileKey(file) + "|" + parameterKey(parameter, distanceFieldSpread);
+        var entry = fonts.get(key);
+        if (entry == null) {
+            var rasterizedFont = new RasterizedFont();
+            rasterizedFont.key = key;
+            rasterizedFont.file = file;
+            rasterizedFont.parameter = parameter;
+            rasterizedFont.distanceFieldSpread = distanceFieldSpread;
+            entry = upload(rasterize(rasterizedFont, false));
+            if (entry == null) throw new GdxRuntimeException("Unable to create a font with no texture regions.");
+        }
+        if (entry.references++ == 0) idleFonts.removeValue(entry, true);
+        
+        var font = new BitmapFont(entry.font.getData(), entry.font.getRegions(), entry.font.usesIntegerPositions());
+        font.setOwnsTexture(false);
+        fontEntries.put(font, entry);
+        return font;
+    }
+    
+    public static synchronized void freeFont(BitmapFont font) {
+        var entry = fontEntries.remove(font);
+        if (entry == null) {
+            font.dispose();
+            return;
+        }
+        
+        if (--entry.references == 0) addIdleFont(entry);
+    }
+    
+    private static void addIdleFont(FontEntry entry) {
+        idleFonts.add(entry);
+        while (idleFonts.size > MAX_IDLE_FONTS) {
+            var removed = idleFonts.removeIndex(0);
+            fonts.remove(removed.key);
+            removed.font.dispose();
+        }
+    }
+    
+    /**
+     * Obtains several fonts at once. The glyphs of every font that is not cached yet are rasterized on a pool of worker
+     * threads and only the texture upload happens on the calling thread, which must be the GL thread. Each returned
+     * font must be returned with freeFont().
+     * @param files The font file of each font.
+     * @param parameters The parameters of each font, in the same order as files.
+     * @param distanceFieldSpreads The distance field spread of each font or 0 for regular glyphs, in the same order as
+     *                             files.
+     * @return The fonts in the same order as files. Fonts that could not be generated are null.
+     */
+    public static Array<BitmapFont> obtainFonts(Array<FileHandle> files, Array<FreeTypeFontParameter> parameters,
+                                                IntArray distanceFieldSpreads) {
+        var pending = new Array<RasterizedFont>();
+        var keys = new ObjectSet<String>();
+        synchronized (FreeTypeFontCache.class) {
+            for (int i = 0; i < files.size; i++) {
+                var key = fileKey(files.get(i)) + "|" + parameterKey(parameters.get(i), distanceFieldSpreads.get(i));
+                if (fonts.containsKey(key) || !keys.add(key)) continue;
+                
+                var rasterizedFont = new RasterizedFont();
+                rasterizedFont.key = key;
+                rasterizedFont.file = files.get(i);
+                rasterizedFont.parameter = parameters.get(i);
+                rasterizedFont.distanceFieldSpread = distanceFieldSpreads.get(i);
+                pending.add(rasterizedFont);
+            }
+        }
+        if (pending.size > 0) rasterizeFonts(pending);
+        
+        var results = new Array<BitmapFont>(files.size);
+        for (int i = 0; i < files.size; i++) {
+            try {
+                results.add(obtainFont(files.get(i), parameters.get(i), distanceFieldSpreads.get(i)));
+            } catch (GdxRuntimeException e) {
+                results.add(null);
+            }
+        }
+        return results;
+    }
+    
+    private static void rasterizeFonts(Array<RasterizedFont> pending) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(pending.size, Runtime.getRuntime().availableProcessors()));
+        var futures = new Array<Future<RasterizedFont>>();
+        try {
+            for (var rasterizedFont : pending) {
+                futures.add(executor.submit(() -> rasterize(rasterizedFont, true)));
+            }
+            
+            for (var future : futures) {
+                RasterizedFont rasterizedFont;
+                try {
+                    rasterizedFont = future.get();
+                } catch (Exception e) {
+                    Gdx.app.error(FreeTypeFontCache.class.getName(), "Error while rasterizing font", e);
+                    continue;
+                }
+                
+                upload(rasterizedFont);
+            }
+            
+            //the workers are done with the disk cache, so it is trimmed by one of them instead of the GL thread
+            executor.execute(getDiskCache()::trim);
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    /**
+     * Reads the font from the disk cache or generates its glyphs with FreeType. Does not require the GL thread.
+     * @param rasterizedFont
+     * @param persist If true, generated glyphs are added to the disk cache.
+     * @return
+     */
+    private static RasterizedFont rasterize(RasterizedFont rasterizedFont, boolean persist) {
+        var parameter = rasterizedFont.parameter;
+        var diskKey = Long.toHexString(contentChecksum(rasterizedFont.file)) + "|"
+                + parameterKey(parameter, rasterizedFont.distanceFieldSpread);
+        rasterizedFont.data = getDiskCache().load(diskKey, rasterizedFont.pages);
+        if (rasterizedFont.data != null) return rasterizedFont;
+        
+        //the packer is only filled with pixmaps here, textures are created later on the GL thread
+        int glyphSize = parameter.size * 2 + MathUtils.ceil(parameter.borderWidth) * 2
+                + Math.max(Math.abs(parameter.shadowOffsetX), Math.abs(parameter.shadowOffsetY))
+                + Math.max(parameter.padLeft + parameter.padRight, parameter.padTop + parameter.padBottom);
+        int pageSize = MathUtils.nextPowerOfTwo((int) Math.sqrt((double) glyphSize * glyphSize * parameter.characters.length()));
+        pageSize = MathUtils.clamp(pageSize, MathUtils.nextPowerOfTwo(glyphSize + 2), 4096);
+        var packer = new PixmapPacker(pageSize, pageSize, Pixmap.Format.RGBA8888, 1, false, new PixmapPacker.SkylineStrategy());
+        
+        var generatorParameter = copyParameter(parameter);
+        generatorParameter.packer = packer;
+        
+        var generator = obtainGenerator(rasterizedFont.file);
+        try {
+            rasterizedFont.data = generator.generateData(generatorParameter);
+        } catch (RuntimeException e) {
+            packer.dispose();
+            throw e;
+        } finally {
+            freeGenerator(generator);
+        }
+        
+        for (var page : packer.getPages()) {
+            if (rasterizedFont.distanceFieldSpread > 0) Utils.distanceField(page.getPixmap(), rasterizedFont.distanceFieldSpread);
+            rasterizedFont.pages.add(page.getPixmap());
+        }
+        if (persist) getDiskCache().save(diskKey, rasterizedFont.data, rasterizedFont.pages);
+        return rasterizedFont;
+    }
+    
+    /**
+     * Creates the textures of the font and adds it to the cache. Must be called on the GL thread. The textures take
+     * ownership of the page pixmaps.
+     * @param rasterizedFont
+     * @return The new cache entry or null if the font has no pages.
+     */
+    private static synchronized FontEntry upload(RasterizedFont rasterizedFont) {
+        var parameter = rasterizedFont.parameter;
+        if (rasterizedFont.pages.isEmpty()) return null;
+        
+        var regions = new Array<TextureRegion>();
+        for (var pixmap : rasterizedFont.pages) {
+            var texture = new Texture(new PixmapTextureData(pixmap, pixmap.getFormat(), parameter.genMipMaps, true));
+            texture.setFilter(parameter.minFilter, parameter.magFilter);
+            regions.add(new TextureRegion(texture));
+        }
+        
+        var font = new BitmapFont(rasterizedFont.data, regions, true);
+        font.setOwnsTexture(true);
+        
+        var entry = new FontEntry();
+        entry.key = rasterizedFont.key;
+        entry.font = font;
+        fonts.put(entry.key, entry);
+        return entry;
+    }
+    
+    private static synchronized FreeTypeFontDiskCache getDiskCache() {
+        if (diskCache == null) diskCache = new FreeTypeFontDiskCache(appFolder.child("freetype/cache/"));
+        return diskCache;
+    }
+    
+    /**
+     * Returns the checksum of the font file's contents. Checksums are remembered per file path, size, and modification
+     * time.
+     * @param file
+     * @return
+     */
+    private static long contentChecksum(FileHandle file) {
+        var key = fileKey(file);
+        synchronized (FreeTypeFontCache.class) {
+            var checksum = checksums.get(key);
+            if (checksum != null) return checksum;
+        }
+        
+        long checksum = Utils.fileChecksum(file);
+        synchronized (FreeTypeFontCache.class) {
+            checksums.put(key, checksum);
+        }
+        return checksum;
+    }
+    
+    private static FreeTypeFontParameter copyParameter(FreeTypeFontParameter parameter) {
+        var copy = new FreeTypeFontParameter();
+        copy.size = parameter.size;
+        copy.mono = parameter.mono;
+        copy.hinting = parameter.hinting;
+        copy.color = parameter.color;
+        copy.gamma = parameter.gamma;
+        copy.renderCount = parameter.renderCount;
+        copy.borderWidth = parameter.borderWidth;
+        copy.borderColor = parameter.borderColor;
+        copy.borderStraight = parameter.borderStraight;
+        copy.borderGamma = parameter.borderGamma;
+        copy.shadowOffsetX = parameter.shadowOffsetX;
+        copy.shadowOffsetY = parameter.shadowOffsetY;
+        copy.shadowColor = parameter.shadowColor;
+        copy.spaceX = parameter.spaceX;
+        copy.spaceY = parameter.spaceY;
+        copy.padTop = parameter.padTop;
+        copy.padLeft = parameter.padLeft;
+        copy.padBottom = parameter.padBottom;
+        copy.padRight = parameter.padRight;
+        copy.characters = parameter.characters;
+        copy.kerning = parameter.kerning;
+        copy.flip = parameter.flip;
+        copy.genMipMaps = parameter.genMipMaps;
+        copy.minFilter = parameter.minFilter;
+        copy.magFilter = parameter.magFilter;
+        copy.incremental = parameter.incremental;
+        return copy;
+    }
+    
+    private static String fileKey(FileHandle file) {
+        return file.path() + "|" + file.length() + "|" + file.lastModified();
+    }
+    
+    private static String parameterKey(FreeTypeFontParameter parameter, int distanceFieldSpread) {
+        return parameter.size + "|" + parameter.mono + "|" + parameter.hinting + "|" + parameter.color + "|"
+                + parameter.gamma + "|" + parameter.renderCount + "|" + parameter.borderWidth + "|"
+                + parameter.borderColor + "|" + parameter.borderStraight + "|" + parameter.borderGamma + "|"
+                + parameter.shadowOffsetX + "|" + parameter.shadowOffsetY + "|" + parameter.shadowColor + "|"
+                + parameter.spaceX + "|" + parameter.spaceY + "|" + parameter.padTop + "|" + parameter.padLeft + "|"
+                + parameter.padBottom + "|" + parameter.padRight + "|" + parameter.kerning + "|" + parameter.flip + "|"
+                + parameter.genMipMaps + "|" + parameter.minFilter + "|" + parameter.magFilter + "|"
+                + parameter.incremental + "|" + distanceFieldSpread + "|" + parameter.characters;
+    }
+}
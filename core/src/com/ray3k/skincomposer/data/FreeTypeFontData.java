@@ -34,10 +34,13 @@ import com.badlogic.gdx.graphics.g2d.PixmapPacker;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.FreeTypeFontParameter;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator.Hinting;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
 import com.ray3k.skincomposer.Main;
+import com.ray3k.skincomposer.utils.Utils;
 
 import static com.ray3k.skincomposer.Main.*;
 
@@ -68,7 +71,18 @@ public class FreeTypeFontData implements Json.Serializable {
     public String minFilter = "Nearest";
     public String magFilter = "Nearest";
     public boolean incremental;
+    /**
+     * Generates a signed distance field of the glyphs instead of plain coverage so one atlas can be rendered at any
+     * size with a distance field shader.
+     */
+    public boolean distanceField;
+    public int distanceFieldSpread = 4;
     public BitmapFont bitmapFont;
+    /**
+     * Changes whenever a new bitmapFont is created. Unique among all fonts, so it identifies the version of the font.
+     */
+    public int bitmapFontGeneration;
+    private static int lastBitmapFontGeneration;
     
     public FreeTypeFontData() {
         
@@ -101,145 +115,159 @@ public class FreeTypeFontData implements Json.Serializable {
         minFilter = original.minFilter;
         magFilter = original.magFilter;
         incremental = original.incremental;
+        distanceField = original.distanceField;
+        distanceFieldSpread = original.distanceFieldSpread;
     }
     
     public void createBitmapFont() {
-        if (bitmapFont != null) {
-            bitmapFont.dispose();
+        disposeBitmapFont();
+        
+        FileHandle fontFile = getFontFile();
+        if (fontFile == null) return;
+        
+        try {
+            bitmapFont = FreeTypeFontCache.obtainFont(fontFile, useCustomSerializer ? createParameter() : createPreviewParameter(),
+                    getDistanceFieldSpread());
+            bitmapFontGeneration = ++lastBitmapFontGeneration;
+        } catch (GdxRuntimeException e) {
             bitmapFont = null;
         }
+    }
+    
+    /**
+     * Creates the bitmap fonts of all the given fonts. Glyphs are rasterized in parallel and only the textures are
+     * created on the calling thread, which must be the GL thread.
+     * @param fonts
+     */
+    public static void createBitmapFonts(Array<FreeTypeFontData> fonts) {
+        Array<FreeTypeFontData> created = new Array<>();
+        Array<FileHandle> files = new Array<>();
+        Array<FreeTypeFontParameter> parameters = new Array<>();
+        IntArray spreads = new IntArray();
+        for (FreeTypeFontData font : fonts) {
+            font.disposeBitmapFont();
+            
+            FileHandle fontFile = font.getFontFile();
+            if (fontFile == null) continue;
+            created.add(font);
+            files.add(fontFile);
+            parameters.add(font.useCustomSerializer ? font.createParameter() : createPreviewParameter());
+            spreads.add(font.getDistanceFieldSpread());
+        }
         
+        Array<BitmapFont> bitmapFonts = FreeTypeFontCache.obtainFonts(files, parameters, spreads);
+        for (int i = 0; i < created.size; i++) {
+            created.get(i).bitmapFont = bitmapFonts.get(i);
+            created.get(i).bitmapFontGeneration = ++lastBitmapFontGeneration;
+        }
+    }
+    
+    private FileHandle getFontFile() {
         if (!useCustomSerializer) {
-            if (previewTTF == null) return;
-            FreeTypeFontParameter parameter = new FreeTypeFontParameter();
-            parameter.color = Color.BLACK;
-            
+            if (previewTTF == null) return null;
             FileHandle previewFontPath = appFolder.child("preview fonts/" + previewTTF + ".ttf");
-            if (previewFontPath.exists()) {
-                FreeTypeFontGenerator generator = new FreeTypeFontGenerator(previewFontPath);
-                generator.setMaxTextureSize(FreeTypeFontGenerator.NO_MAXIMUM);
-                bitmapFont = generator.generateFont(parameter);
-                generator.dispose();
-            }
+            return previewFontPath.exists() ? previewFontPath : null;
         } else {
-            if (file == null || !file.exists()) return;
-            FreeTypeFontGenerator generator = new FreeTypeFontGenerator(file);
-            generator.setMaxTextureSize(FreeTypeFontGenerator.NO_MAXIMUM);
-            FreeTypeFontParameter parameter = new FreeTypeFontParameter();
-
-            if (borderColor != null) for (ColorData colorData : jsonData.getColors()) {
-                if (colorData.getName().equals(borderColor)) {
-                    parameter.borderColor = colorData.color;
-                    break;
-                }
-            }
-            parameter.borderGamma = borderGamma;
-            parameter.borderStraight = borderStraight;
-            parameter.borderWidth = borderWidth;
-            parameter.characters = characters.equals("") ? DEFAULT_CHARS : characters;
-            if (color != null) for (ColorData colorData : jsonData.getColors()) {
-                if (colorData.getName().equals(color)) {
-                    parameter.color = colorData.color;
-                    break;
-                }
-            }
-            parameter.flip = flip;
-            parameter.gamma = gamma;
-            parameter.genMipMaps = genMipMaps;
-            parameter.hinting = hinting == null ? Hinting.AutoMedium : Hinting.valueOf(hinting);
-            parameter.incremental = false;
-            parameter.kerning = kerning;
-            parameter.magFilter = magFilter == null ? TextureFilter.Nearest : TextureFilter.valueOf(magFilter);
-            parameter.minFilter = minFilter == null ? TextureFilter.Nearest : TextureFilter.valueOf(minFilter);
-            parameter.mono = mono;
-            parameter.renderCount = renderCount;
-            if (shadowColor != null) for (ColorData colorData : jsonData.getColors()) {
-                if (colorData.getName().equals(shadowColor)) {
-                    parameter.shadowColor = colorData.color;
-                    break;
-                }
-            }
-            parameter.shadowOffsetX = shadowOffsetX;
-            parameter.shadowOffsetY = shadowOffsetY;
-            parameter.size = size;
-            parameter.spaceX = spaceX;
-            parameter.spaceY = spaceY;
-            
-            try {
-                bitmapFont = generator.generateFont(parameter);
-            } catch (GdxRuntimeException e) {
-                bitmapFont = null;
-            }
-            generator.dispose();
+            return file == null || !file.exists() ? null : file;
         }
     }
     
-    public void writeFontToFile(Main main, FileHandle target) {
+    /**
+     * @return The spread of the distance field or 0 if the glyphs are rendered normally.
+     */
+    private int getDistanceFieldSpread() {
+        return useCustomSerializer && distanceField ? Math.max(distanceFieldSpread, 1) : 0;
+    }
+    
+    private static FreeTypeFontParameter createPreviewParameter() {
+        FreeTypeFontParameter parameter = new FreeTypeFontParameter();
+        parameter.color = Color.BLACK;
+        return parameter;
+    }
+    
+    /**
+     * Returns the generated font to the shared FreeTypeFontCache. Use this instead of disposing bitmapFont directly.
+     */
+    public void disposeBitmapFont() {
         if (bitmapFont != null) {
-            bitmapFont.dispose();
+            FreeTypeFontCache.freeFont(bitmapFont);
             bitmapFont = null;
         }
+    }
+    
+    private FreeTypeFontParameter createParameter() {
+        FreeTypeFontParameter parameter = new FreeTypeFontParameter();
+        
+        if (borderColor != null) {
+            ColorData colorData = jsonData.getColorByName(borderColor);
+            if (colorData != null) parameter.borderColor = colorData.color;
+        }
+        parameter.borderGamma = borderGamma;
+        parameter.borderStraight = borderStraight;
+        parameter.borderWidth = borderWidth;
+        parameter.characters = characters.equals("") ? DEFAULT_CHARS : characters;
+        if (color != null) {
+            ColorData colorData = jsonData.getColorByName(color);
+            if (colorData != null) parameter.color = colorData.color;
+        }
+        parameter.flip = flip;
+        parameter.gamma = gamma;
+        parameter.genMipMaps = genMipMaps;
+        parameter.hinting = hinting == null ? Hinting.AutoMedium : Hinting.valueOf(hinting);
+        parameter.incremental = false;
+        parameter.kerning = kerning;
+        parameter.magFilter = magFilter == null ? TextureFilter.Nearest : TextureFilter.valueOf(magFilter);
+        parameter.minFilter = minFilter == null ? TextureFilter.Nearest : TextureFilter.valueOf(minFilter);
+        parameter.mono = mono;
+        parameter.renderCount = renderCount;
+        if (shadowColor != null) {
+            ColorData colorData = jsonData.getColorByName(shadowColor);
+            if (colorData != null) parameter.shadowColor = colorData.color;
+        }
+        parameter.shadowOffsetX = shadowOffsetX;
+        parameter.shadowOffsetY = shadowOffsetY;
+        parameter.size = size;
+        parameter.spaceX = spaceX;
+        parameter.spaceY = spaceY;
+        if (distanceField) {
+            //the field extends past the outline of the glyph so it needs room on every side
+            int spread = getDistanceFieldSpread();
+            parameter.padTop = spread;
+            parameter.padLeft = spread;
+            parameter.padBottom = spread;
+            parameter.padRight = spread;
+        }
+        return parameter;
+    }
+    
+    public void writeFontToFile(Main main, FileHandle target) {
+        disposeBitmapFont();
         
         if (!useCustomSerializer) {
             if (previewTTF == null) return;
-            FreeTypeFontParameter parameter = new FreeTypeFontParameter();
-            parameter.color = Color.BLACK;
-            
             FileHandle previewFontPath = appFolder.child("preview fonts/" + previewTTF + ".ttf");
             if (previewFontPath.exists()) {
-                FreeTypeFontGenerator generator = new FreeTypeFontGenerator(previewFontPath);
-                generator.setMaxTextureSize(FreeTypeFontGenerator.NO_MAXIMUM);
-                bitmapFont = generator.generateFont(parameter);
-                generator.dispose();
+                bitmapFont = FreeTypeFontCache.obtainFont(previewFontPath, createPreviewParameter());
+                bitmapFontGeneration = ++lastBitmapFontGeneration;
             }
         } else {
             if (file == null) return;
-            FreeTypeFontGenerator generator = new FreeTypeFontGenerator(file);
-            FreeTypeFontParameter parameter = new FreeTypeFontParameter();
+            FreeTypeFontGenerator generator = FreeTypeFontCache.obtainGenerator(file);
+            FreeTypeFontParameter parameter = createParameter();
+            parameter.packer = new PixmapPacker(512, 512, Pixmap.Format.RGBA8888, 2, false, new PixmapPacker.SkylineStrategy());
 
-            if (borderColor != null) for (ColorData colorData : jsonData.getColors()) {
-                if (colorData.getName().equals(borderColor)) {
-                    parameter.borderColor = colorData.color;
-                    break;
-                }
-            }
-            parameter.borderGamma = borderGamma;
-            parameter.borderStraight = borderStraight;
-            parameter.borderWidth = borderWidth;
-            parameter.characters = characters.equals("") ? DEFAULT_CHARS : characters;
-            if (color != null) for (ColorData colorData : jsonData.getColors()) {
-                if (colorData.getName().equals(color)) {
-                    parameter.color = colorData.color;
-                    break;
-                }
-            }
-            parameter.flip = flip;
-            parameter.gamma = gamma;
-            parameter.genMipMaps = genMipMaps;
-            parameter.hinting = hinting == null ? Hinting.AutoMedium : Hinting.valueOf(hinting);
-            parameter.incremental = false;
-            parameter.kerning = kerning;
-            parameter.magFilter = magFilter == null ? TextureFilter.Nearest : TextureFilter.valueOf(magFilter);
-            parameter.minFilter = minFilter == null ? TextureFilter.Nearest : TextureFilter.valueOf(minFilter);
-            parameter.mono = mono;
-            parameter.renderCount = renderCount;
-            if (shadowColor != null) for (ColorData colorData : jsonData.getColors()) {
-                if (colorData.getName().equals(shadowColor)) {
-                    parameter.shadowColor = colorData.color;
-                    break;
+            try {
+                var data = generator.generateData(parameter);
+                if (distanceField) {
+                    for (var page : parameter.packer.getPages()) {
+                        Utils.distanceField(page.getPixmap(), getDistanceFieldSpread());
+                    }
                 }
+                
+                desktopWorker.writeFont(data, parameter.packer.getPages(), target);
+            } finally {
+                FreeTypeFontCache.freeGenerator(generator);
             }
-            parameter.shadowOffsetX = shadowOffsetX;
-            parameter.shadowOffsetY = shadowOffsetY;
-            parameter.size = size;
-            parameter.spaceX = spaceX;
-            parameter.spaceY = spaceY;
-            parameter.packer = new PixmapPacker(512, 512, Pixmap.Format.RGBA8888, 2, false, new PixmapPacker.SkylineStrategy());
-
-            var data = generator.generateData(parameter);
-            
-            desktopWorker.writeFont(data, parameter.packer.getPages(), target);
-            generator.dispose();
         }
     }
 
@@ -271,6 +299,8 @@ public class FreeTypeFontData implements Json.Serializable {
         json.writeValue("minFilter", minFilter);
         json.writeValue("magFilter", magFilter);
         json.writeValue("incremental", incremental);
+        json.writeValue("distanceField", distanceField);
+        json.writeValue("distanceFieldSpread", distanceFieldSpread);
     }
 
     @Override
@@ -301,5 +331,7 @@ public class FreeTypeFontData implements Json.Serializable {
         minFilter = jsonData.getString("minFilter", "Nearest");
         magFilter = jsonData.getString("magFilter", "Nearest");
         incremental = jsonData.getBoolean("incremental");
+        distanceField = jsonData.getBoolean("distanceField", false);
+        distanceFieldSpread = jsonData.getInt("distanceFieldSpread", 4);
     }
 }
@@ -0,0 +1,276 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2022 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.data;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.BitmapFontData;
+import com.badlogic.gdx.graphics.g2d.BitmapFont.Glyph;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.Json;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Keeps generated FreeType fonts between sessions. Each entry stores the glyph pages as CIM files and the font metrics
+ * and glyphs exactly as FreeType produced them, so a cached font is identical to a freshly generated one. Entries are
+ * identified by the checksum of the font file and the generator parameters. The least recently used entries are
+ * deleted when the cache grows beyond MAX_CACHE_SIZE.
+ */
+public class FreeTypeFontDiskCache {
+    private static final long MAX_CACHE_SIZE = 64L * 1024L * 1024L;
+    private FileHandle folder;
+    
+    public FreeTypeFontDiskCache(FileHandle folder) {
+        this.folder = folder;
+    }
+    
+    /**
+     * Json is not thread safe, so every load and save uses its own instance.
+     * @return
+     */
+    private static Json createJson() {
+        var json = new Json();
+        json.setElementType(CachedFont.class, "glyphs", CachedGlyph.class);
+        return json;
+    }
+    
+    /**
+     * Reads the cached font with the given key. Can be called from several threads at once for different keys.
+     * @param key
+     * @param pages Receives the page pixmaps of the font. The caller is responsible for disposing them.
+     * @return The font data or null if the font is not cached.
+     */
+    public BitmapFontData load(String key, Array<Pixmap> pages) {
+        var entry = entry(key);
+        var fontFile = entry.child("font.json");
+        if (!fontFile.exists()) return null;
+        
+        try {
+            var cachedFont = createJson().fromJson(CachedFont.class, fontFile);
+            if (!hash(key).equals(cachedFont.key)) return null;
+            
+            var data = new BitmapFontData();
+            data.flipped = cachedFont.flipped;
+            data.padTop = cachedFont.padTop;
+            data.padRight = cachedFont.padRight;
+            data.padBottom = cachedFont.padBottom;
+            data.padLeft = cachedFont.padLeft;
+            data.lineHeight = cachedFont.lineHeight;
+            data.capHeight = cachedFont.capHeight;
+            data.ascent = cachedFont.ascent;
+            data.descent = cachedFont.descent;
+            data.down = cachedFont.down;
+            data.spaceXadvance = cachedFont.spaceXadvance;
+            data.xHeight = cachedFont.xHeight;
+            data.imagePaths = new String[cachedFont.pages];
+            
+            for (var cachedGlyph : cachedFont.glyphs) {
+                var glyph = new Glyph();
+                glyph.id = cachedGlyph.id;
+                glyph.srcX = cachedGlyph.srcX;
+                glyph.srcY = cachedGlyph.srcY;
+                glyph.width = cachedGlyph.width;
+                glyph.height = cachedGlyph.height;
+                glyph.xoffset = cachedGlyph.xoffset;
+                glyph.yoffset = cachedGlyph.yoffset;
+                glyph.xadvance = cachedGlyph.xadvance;
+                glyph.fixedWidth = cachedGlyph.fixedWidth;
+                glyph.page = cachedGlyph.page;
+                if (cachedGlyph.kerning != null) for (int i = 0; i + 1 < cachedGlyph.kerning.length; i += 2) {
+                    glyph.setKerning(cachedGlyph.kerning[i], cachedGlyph.kerning[i + 1]);
+                }
+                data.setGlyph(glyph.id, glyph);
+            }
+            if (cachedFont.missingGlyph != -1) data.missingGlyph = data.getGlyph((char) cachedFont.missingGlyph);
+            
+            for (int i = 0; i < cachedFont.pages; i++) {
+                pages.add(PixmapIO.readCIM(entry.child("page" + i + ".cim")));
+            }
+            
+            entry.file().setLastModified(System.currentTimeMillis());
+            return data;
+        } catch (Exception e) {
+            Gdx.app.error(getClass().getName(), "Error while reading font cache: " + entry.path(), e);
+            for (var pixmap : pages) pixmap.dispose();
+            pages.clear();
+            return null;
+        }
+    }
+    
+    /**
+     * Writes the font to the cache. Can be called from several threads at once for different keys.
+     * @param key
+     * @param data
+     * @param pages The page pixmaps of the font in page order.
+     */
+    public void save(String key, BitmapFontData data, Array<Pixmap> pages) {
+        var entry = entry(key);
+        try {
+            //font.json marks the entry as complete, so it is written last
+            entry.mkdirs();
+            entry.child("font.json").delete();
+            
+            for (int i = 0; i < pages.size; i++) {
+                PixmapIO.writeCIM(entry.child("page" + i + ".cim"), pages.get(i));
+            }
+            
+            var cachedFont = new CachedFont();
+            cachedFont.key = hash(key);
+            cachedFont.pages = pages.size;
+            cachedFont.flipped = data.flipped;
+            cachedFont.padTop = data.padTop;
+            cachedFont.padRight = data.padRight;
+            cachedFont.padBottom = data.padBottom;
+            cachedFont.padLeft = data.padLeft;
+            cachedFont.lineHeight = data.lineHeight;
+            cachedFont.capHeight = data.capHeight;
+            cachedFont.ascent = data.ascent;
+            cachedFont.descent = data.descent;
+            cachedFont.down = data.down;
+            cachedFont.spaceXadvance = data.spaceXadvance;
+            cachedFont.xHeight = data.xHeight;
+            cachedFont.missingGlyph = data.missingGlyph == null ? -1 : data.missingGlyph.id;
+            
+            var kerning = new IntArray();
+            for (var glyphPage : data.glyphs) {
+                if (glyphPage == null) continue;
+                for (var glyph : glyphPage) {
+                    if (glyph == null) continue;
+                    var cachedGlyph = new CachedGlyph();
+                    cachedGlyph.id = glyph.id;
+                    cachedGlyph.srcX = glyph.srcX;
+                    cachedGlyph.srcY = glyph.srcY;
+                    cachedGlyph.width = glyph.width;
+                    cachedGlyph.height = glyph.height;
+                    cachedGlyph.xoffset = glyph.xoffset;
+                    cachedGlyph.yoffset = glyph.yoffset;
+                    cachedGlyph.xadvance = glyph.xadvance;
+                    cachedGlyph.fixedWidth = glyph.fixedWidth;
+                    cachedGlyph.page = glyph.page;
+                    
+                    kerning.clear();
+                    if (glyph.kerning != null) for (int i = 0; i < glyph.kerning.length; i++) {
+                        var kerningPage = glyph.kerning[i];
+                        if (kerningPage == null) continue;
+                        for (int j = 0; j < kerningPage.length; j++) {
+                            if (kerningPage[j] != 0) kerning.add(i * kerningPage.length + j, kerningPage[j]);
+                        }
+                    }
+                    if (kerning.size > 0) cachedGlyph.kerning = kerning.toArray();
+                    cachedFont.glyphs.add(cachedGlyph);
+                }
+            }
+            
+            entry.child("font.json").writeString(createJson().toJson(cachedFont), false);
+        } catch (Exception e) {
+            Gdx.app.error(getClass().getName(), "Error while writing font cache: " + entry.path(), e);
+            entry.deleteDirectory();
+        }
+    }
+    
+    /**
+     * Deletes the least recently used entries until the cache is smaller than MAX_CACHE_SIZE.
+     */
+    public synchronized void trim() {
+        var entries = new Array<FileHandle>(folder.list());
+        entries.sort((o1, o2) -> Long.compare(o2.file().lastModified(), o1.file().lastModified()));
+        
+        long size = 0;
+        for (var entry : entries) {
+            if (!entry.isDirectory()) continue;
+            long entrySize = 0;
+            for (var file : entry.list()) entrySize += file.length();
+            size += entrySize;
+            
+            if (size > MAX_CACHE_SIZE) {
+                entry.deleteDirectory();
+                size -= entrySize;
+            }
+        }
+    }
+    
+    private FileHandle entry(String key) {
+        return folder.child(hash(key));
+    }
+    
+    /**
+     * Keys contain the characters of the font, which may include control characters, so only their hash is used for
+     * file names and stored in the entries.
+     * @param key
+     * @return
+     */
+    private static String hash(String key) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            var builder = new StringBuilder();
+            for (var b : digest) builder.append(String.format("%02x", b));
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new GdxRuntimeException(e);
+        }
+    }
+    
+    public static class CachedFont {
+        public String key;
+        public int pages;
+        public boolean flipped;
+        public float padTop;
+        public float padRight;
+        public float padBottom;
+        public float padLeft;
+        public float lineHeight;
+        public float capHeight;
+        public float ascent;
+        public float descent;
+        public float down;
+        public float spaceXadvance;
+        public float xHeight;
+        public int missingGlyph;
+        public Array<CachedGlyph> glyphs = new Array<>();
+    }
+    
+    public static class CachedGlyph {
+        public int id;
+        public int srcX;
+        public int srcY;
+        public int width;
+        public int height;
+        public int xoffset;
+        public int yoffset;
+        public int xadvance;
+        public boolean fixedWidth;
+        public int page;
+        /**
+         * Pairs of the following character and the kerning amount.
+         */
+        public int[] kerning;
+    }
+}
@@ -57,7 +57,7 @@ import static com.ray3k.skincomposer.data.DrawableData.DrawableType.*;
 import java.io.StringWriter;
 
 public class JsonData implements Json.Serializable {
-    private Array<ColorData> colors;
+    private NameIndexedArray<ColorData> colors;
     private Array<FontData> fonts;
     private Array<FreeTypeFontData> freeTypeFonts;
     private OrderedMap<Class, Array<StyleData>> classStyleMap;
@@ -85,7 +85,7 @@ public class JsonData implements Json.Serializable {
     }
 
     public JsonData() {
-        colors = new Array<>();
+        colors = new NameIndexedArray<>(ColorData::getName);
         fonts = new Array<>();
         freeTypeFonts = new Array<>();
 
@@ -97,7 +97,7 @@ public class JsonData implements Json.Serializable {
         colors.clear();
         fonts.clear();
         for (FreeTypeFontData font : freeTypeFonts) {
-            if (font.bitmapFont != null) font.bitmapFont.dispose();
+            font.disposeBitmapFont();
         }
         freeTypeFonts.clear();
         initializeClassStyleMap();
@@ -246,10 +246,9 @@ public class JsonData implements Json.Serializable {
                     ColorData colorData = new ColorData(color.name, colorValue);
                     
                     //delete colors with the same name
-                    for (ColorData originalData : new Array<>(colors)) {
-                        if (originalData.getName().equals(colorData.getName())) {
-                            colors.removeValue(originalData, true);
-                        }
+                    ColorData originalData;
+                    while ((originalData = colors.findByName(colorData.getName())) != null) {
+                        colors.removeValue(originalData, true);
                     }
                     
                     colors.add(colorData);
@@ -275,10 +274,9 @@ public class JsonData implements Json.Serializable {
                     drawableData.minHeight = tiledDrawable.getFloat("minHeight", 0.0f);
    
                     //delete drawables with the same name
-                    for (DrawableData originalData : new Array<>(projectData.getAtlasData().getDrawables())) {
-                        if (originalData.name.equals(drawableData.name)) {
-                            projectData.getAtlasData().getDrawables().removeValue(originalData, true);
-                        }
+                    DrawableData originalData;
+                    while ((originalData = projectData.getAtlasData().getDrawable(drawableData.name)) != null) {
+                        projectData.getAtlasData().getDrawables().removeValue(originalData, true);
                     }
                     
                     projectData.getAtlasData().getDrawables().add(drawableData);
@@ -306,10 +304,9 @@ public class JsonData implements Json.Serializable {
                     if (tintedDrawable.has("minHeight")) drawableData.minHeight = tintedDrawable.getFloat("minHeight");
                     
                     //delete drawables with the same name
-                    for (DrawableData originalData : new Array<>(projectData.getAtlasData().getDrawables())) {
-                        if (originalData.name.equals(drawableData.name)) {
-                            projectData.getAtlasData().getDrawables().removeValue(originalData, true);
-                        }
+                    DrawableData originalData;
+                    while ((originalData = projectData.getAtlasData().getDrawable(drawableData.name)) != null) {
+                        projectData.getAtlasData().getDrawables().removeValue(originalData, true);
                     }
                     
                     projectData.getAtlasData().getDrawables().add(drawableData);
@@ -345,10 +342,9 @@ public class JsonData implements Json.Serializable {
                     drawableData.tenPatchData.crushMode = value.getInt("crushMode", CrushMode.SHRINK);
     
                     //delete drawables with the same name
-                    for (DrawableData originalData : new Array<>(projectData.getAtlasData().getDrawables())) {
-                        if (originalData.name.equals(drawableData.name)) {
-                            projectData.getAtlasData().getDrawables().removeValue(originalData, true);
-                        }
+                    DrawableData originalData;
+                    while ((originalData = projectData.getAtlasData().getDrawable(drawableData.name)) != null) {
+                        projectData.getAtlasData().getDrawables().removeValue(originalData, true);
                     }
     
                     projectData.getAtlasData().getDrawables().add(drawableData);
@@ -376,10 +372,9 @@ public class JsonData implements Json.Serializable {
                     drawableData.tvgData.clipBasedOnTVGsize = value.getBoolean("clipBasedOnTVGsize");
         
                     //delete drawables with the same name
-                    for (DrawableData originalData : new Array<>(projectData.getAtlasData().getDrawables())) {
-                        if (originalData.name.equals(drawableData.name)) {
-                            projectData.getAtlasData().getDrawables().removeValue(originalData, true);
-                        }
+                    DrawableData originalData;
+                    while ((originalData = projectData.getAtlasData().getDrawable(drawableData.name)) != null) {
+                        projectData.getAtlasData().getDrawables().removeValue(originalData, true);
                     }
         
                     projectData.getAtlasData().getDrawables().add(drawableData);
@@ -528,12 +523,7 @@ public class JsonData implements Json.Serializable {
                     if (property.value != null) {
                         boolean keep = false;
                         if (property.type == Color.class) {
-                            for (ColorData color : colors) {
-                                if (property.value.equals(color.getName())) {
-                                    keep = true;
-                                    break;
-                                }
-                            }
+                            keep = property.value instanceof String && colors.containsName((String) property.value);
                         } else if (property.type == BitmapFont.class) {
                             for (FontData font : fonts) {
                                 if (property.value.equals(font.getName())) {
@@ -548,12 +538,7 @@ public class JsonData implements Json.Serializable {
                                 }
                             }
                         } else if (property.type == Drawable.class) {
-                            for (DrawableData drawable : atlasData.getDrawables()) {
-                                if (property.value.equals(drawable.name)) {
-                                    keep = true;
-                                    break;
-                                }
-                            }
+                            keep = property.value instanceof String && atlasData.getDrawables().containsName((String) property.value);
                             
                             if (!keep) {
                                 keep = true;
@@ -582,19 +567,11 @@ public class JsonData implements Json.Serializable {
                             keep = true;
                         } else switch (customProperty.getType()) {
                             case COLOR:
-                                for (ColorData color : colors) {
-                                    if (customProperty.getValue().equals(color.getName())) {
-                                        keep = true;
-                                        break;
-                                    }
-                                }   break;
+                                keep = customProperty.getValue() instanceof String && colors.containsName((String) customProperty.getValue());
+                                break;
                             case DRAWABLE:
-                                for (DrawableData drawable : atlasData.getDrawables()) {
-                                    if (customProperty.getValue().equals(drawable.name)) {
-                                        keep = true;
-                                        break;
-                                    }
-                                }   break;
+                                keep = customProperty.getValue() instanceof String && atlasData.getDrawables().containsName((String) customProperty.getValue());
+                                break;
                             case FONT:
                                 for (FontData font : fonts) {
                                     if (customProperty.getValue().equals(font.getName())) {
@@ -820,11 +797,15 @@ public class JsonData implements Json.Serializable {
                     json.writeObjectEnd();
                 }
                 
-                var atlasDrawable = atlasData.getDrawablePairs().get(drawable);
-                json.writeValue("leftWidth", atlasDrawable.getLeftWidth());
-                json.writeValue("rightWidth", atlasDrawable.getRightWidth());
-                json.writeValue("topHeight", atlasDrawable.getTopHeight());
-                json.writeValue("bottomHeight", atlasDrawable.getBottomHeight());
+                var atlasDrawable = atlasData.getDrawablePair(drawable);
+                if (atlasDrawable != null) {
+                    json.writeValue("leftWidth", atlasDrawable.getLeftWidth());
+                    json.writeValue("rightWidth", atlasDrawable.getRightWidth());
+                    json.writeValue("topHeight", atlasDrawable.getTopHeight());
+                    json.writeValue("bottomHeight", atlasDrawable.getBottomHeight());
+                } else {
+                    warnings.add("[RED]ERROR:[] Drawable [BLACK]" + name + "[] could not be generated. Its split sizes were not exported.");
+                }
                 json.writeObjectEnd();
             }
             json.writeObjectEnd();
@@ -1093,19 +1074,11 @@ public class JsonData implements Json.Serializable {
                     returnValue = true;
                     break;
                 case COLOR:
-                    for (ColorData data : getColors()) {
-                        if (data.getName().equals(customProperty.getValue())) {
-                            returnValue = true;
-                            break;
-                        }
-                    }   break;
+                    returnValue = colors.containsName((String) customProperty.getValue());
+                    break;
                 case DRAWABLE:
-                    for (DrawableData data : atlasData.getDrawables()) {
-                        if (data.name.equals(customProperty.getValue())) {
-                            returnValue = true;
-                            break;
-                        }
-                    }   break;
+                    returnValue = atlasData.getDrawables().containsName((String) customProperty.getValue());
+                    break;
                 case FONT:
                     for (FontData data : getFonts()) {
                         if (data.getName().equals(customProperty.getValue())) {
@@ -1158,7 +1131,7 @@ public class JsonData implements Json.Serializable {
         return true;
     }
     
-    public Array<ColorData> getColors() {
+    public NameIndexedArray<ColorData> getColors() {
         return colors;
     }
     
@@ -1167,15 +1140,7 @@ public class JsonData implements Json.Serializable {
     }
     
     public ColorData getColorByName(String tintName, ColorData defaultValue) {
-        ColorData returnValue = null;
-    
-        for (ColorData color : colors) {
-            if (color.getName().equals(tintName)) {
-                returnValue = color;
-                break;
-            }
-        }
-    
+        ColorData returnValue = colors.findByName(tintName);
         return returnValue != null ? returnValue : defaultValue;
     }
 
@@ -1194,7 +1159,7 @@ public class JsonData implements Json.Serializable {
     private void initializeClassStyleMap() {
         classStyleMap = new OrderedMap();
         for (Class clazz : Main.BASIC_CLASSES) {
-            Array<StyleData> array = new Array<>();
+            Array<StyleData> array = new NameIndexedArray<>(style -> style.name);
             classStyleMap.put(clazz, array);
             if (clazz.equals(Slider.class) || clazz.equals(ProgressBar.class) || clazz.equals(SplitPane.class)) {
                 StyleData data = new StyleData(clazz, "default-horizontal", main);
@@ -1235,33 +1200,15 @@ public class JsonData implements Json.Serializable {
     @Override
     public void read(Json json, JsonValue jsonData) {
         try {
-            colors = json.readValue("colors", Array.class, jsonData);
+            colors = new NameIndexedArray<ColorData>(ColorData::getName, json.readValue("colors", Array.class, jsonData));
             fonts = json.readValue("fonts", Array.class, jsonData);
             
             freeTypeFonts = json.readValue("freeTypeFonts", Array.class, new Array<FreeTypeFontData>(),jsonData);
-            FileHandle previewFontsPath = Main.appFolder.child("preview fonts");
-            var fontsList = previewFontsPath.list();
-            
-            for (var freeTypeFont : freeTypeFonts) {
-                if (freeTypeFont.previewTTF != null) {
-                    
-                    boolean foundMatch = false;
-                    for (var previewFile : fontsList) {
-                        if (freeTypeFont.previewTTF.equals(previewFile.nameWithoutExtension())) {
-                            foundMatch = true;
-                            break;
-                        }
-                    }
-                    
-                    if (!foundMatch) {
-                        freeTypeFont.previewTTF = previewFontsPath.list()[0].nameWithoutExtension();
-                    }
-                }
-            }
+            correctPreviewFonts();
             
             classStyleMap = new OrderedMap<>();
             for (JsonValue data : jsonData.get("classStyleMap").iterator()) {
-                classStyleMap.put(ClassReflection.forName(data.name), json.readValue(Array.class, data));
+                classStyleMap.put(ClassReflection.forName(data.name), new NameIndexedArray<StyleData>(style -> style.name, json.readValue(Array.class, data)));
             }
             
             for (Array<StyleData> styleDatas : classStyleMap.values()) {
@@ -1277,6 +1224,31 @@ public class JsonData implements Json.Serializable {
         }
     }
     
+    /**
+     * Replaces the preview font of any FreeType font whose preview font is not installed.
+     */
+    void correctPreviewFonts() {
+        FileHandle previewFontsPath = Main.appFolder.child("preview fonts");
+        var fontsList = previewFontsPath.list();
+        
+        for (var freeTypeFont : freeTypeFonts) {
+            if (freeTypeFont.previewTTF != null) {
+                
+                boolean foundMatch = false;
+                for (var previewFile : fontsList) {
+                    if (freeTypeFont.previewTTF.equals(previewFile.nameWithoutExtension())) {
+                        foundMatch = true;
+                        break;
+                    }
+                }
+                
+                if (!foundMatch) {
+                    freeTypeFont.previewTTF = fontsList[0].nameWithoutExtension();
+                }
+            }
+        }
+    }
+    
     /**
      * Moves font drawables to the appropriate list when reading from legacy save files.
      */
@@ -1328,8 +1300,21 @@ public class JsonData implements Json.Serializable {
         return data;
     }
     
+    /**
+     * Updates the name index of the style's class after the style has been renamed.
+     * @param styleData
+     */
+    public void styleRenamed(StyleData styleData) {
+        var styles = classStyleMap.get(styleData.clazz);
+        if (styles instanceof NameIndexedArray) ((NameIndexedArray<StyleData>) styles).invalidateIndex();
+    }
+    
     public StyleData findStyle(Class clazz, String styleName) {
         var styles = getClassStyleMap().get(clazz);
+        if (styles instanceof NameIndexedArray) {
+            return ((NameIndexedArray<StyleData>) styles).findByName(styleName);
+        }
+        
         for (var style : styles) {
             if (style.name.equals(styleName)) {
                 return style;
@@ -1390,7 +1375,7 @@ public class JsonData implements Json.Serializable {
         customClasses.addAll(jsonData.customClasses);
         
         for (FreeTypeFontData font : freeTypeFonts) {
-            font.bitmapFont.dispose();
+            font.disposeBitmapFont();
         }
         freeTypeFonts.clear();
         freeTypeFonts.addAll(jsonData.freeTypeFonts);
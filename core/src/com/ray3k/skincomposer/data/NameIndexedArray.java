@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2022 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.data;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+
+import java.util.function.Function;
+
+/**
+ * An Array that can look up its items by name in constant time. Items that are added or removed are kept in the name
+ * index as they change. Other structural changes cause the index to be rebuilt on the next lookup. Renaming an item
+ * does not modify the array, so invalidateIndex() must be called after an item that is already in the array is given
+ * a new name.
+ * @param <T>
+ */
+public class NameIndexedArray<T> extends Array<T> {
+    private final Function<T, String> nameFunction;
+    private final ObjectMap<String, T> index = new ObjectMap<>();
+    private boolean indexCurrent;
+    
+    public NameIndexedArray(Function<T, String> nameFunction) {
+        this.nameFunction = nameFunction;
+    }
+    
+    public NameIndexedArray(Function<T, String> nameFunction, Array<? extends T> array) {
+        this(nameFunction);
+        if (array != null) addAll(array);
+    }
+    
+    /**
+     * Returns the first item with the indicated name.
+     * @param name
+     * @return The item or null if no item has the name.
+     */
+    public T findByName(String name) {
+        if (name == null) return null;
+        if (!indexCurrent) rebuildIndex();
+        
+        T item = index.get(name);
+        //an item that was renamed without invalidating the index is still listed under its old name
+        if (item != null && !name.equals(nameFunction.apply(item))) {
+            rebuildIndex();
+            item = index.get(name);
+        }
+        return item;
+    }
+    
+    public boolean containsName(String name) {
+        return findByName(name) != null;
+    }
+    
+    /**
+     * Marks the name index as out of date. Call after renaming an item in the array.
+     */
+    public void invalidateIndex() {
+        indexCurrent = false;
+    }
+    
+    private void indexItem(T item) {
+        var name = nameFunction.apply(item);
+        if (name != null && !index.containsKey(name)) index.put(name, item);
+    }
+    
+    private void unindexItem(T item) {
+        var name = nameFunction.apply(item);
+        if (name == null || index.get(name) != item) return;
+        
+        index.remove(name);
+        for (int i = 0; i < size; i++) {
+            if (name.equals(nameFunction.apply(items[i]))) {
+                index.put(name, items[i]);
+                break;
+            }
+        }
+    }
+    
+    private void rebuildIndex() {
+        index.clear();
+        //iterate backwards so the first item with a duplicated name is the one indexed
+        for (int i = size - 1; i >= 0; i--) {
+            var name = nameFunction.apply(items[i]);
+            if (name != null) index.put(name, items[i]);
+        }
+        indexCurrent = true;
+    }
+    
+    @Override
+    public void add(T value) {
+        super.add(value);
+        if (indexCurrent) indexItem(value);
+    }
+    
+    @Override
+    public void add(T value1, T value2) {
+        super.add(value1, value2);
+        if (indexCurrent) {
+            indexItem(value1);
+            indexItem(value2);
+        }
+    }
+    
+    @Override
+    public void add(T value1, T value2, T value3) {
+        super.add(value1, value2, value3);
+        if (indexCurrent) {
+            indexItem(value1);
+            indexItem(value2);
+            indexItem(value3);
+        }
+    }
+    
+    @Override
+    public void add(T value1, T value2, T value3, T value4) {
+        super.add(value1, value2, value3, value4);
+        if (indexCurrent) {
+            indexItem(value1);
+            indexItem(value2);
+            indexItem(value3);
+            indexItem(value4);
+        }
+    }
+    
+    @Override
+    public void addAll(T[] array, int start, int count) {
+        super.addAll(array, start, count);
+        if (indexCurrent) {
+            for (int i = start; i < start + count; i++) indexItem(array[i]);
+        }
+    }
+    
+    @Override
+    public void set(int index, T value) {
+        super.set(index, value);
+        indexCurrent = false;
+    }
+    
+    @Override
+    public void insert(int index, T value) {
+        super.insert(index, value);
+        indexCurrent = false;
+    }
+    
+    @Override
+    public void insertRange(int index, int count) {
+        super.insertRange(index, count);
+        indexCurrent = false;
+    }
+    
+    @Override
+    public T removeIndex(int index) {
+        T value = super.removeIndex(index);
+        if (indexCurrent) unindexItem(value);
+        return value;
+    }
+    
+    @Override
+    public void removeRange(int start, int end) {
+        super.removeRange(start, end);
+        indexCurrent = false;
+    }
+    
+    @Override
+    public boolean removeAll(Array<? extends T> array, boolean identity) {
+        indexCurrent = false;
+        return super.removeAll(array, identity);
+    }
+    
+    @Override
+    public T pop() {
+        T value = super.pop();
+        if (indexCurrent) unindexItem(value);
+        return value;
+    }
+    
+    @Override
+    public void clear() {
+        super.clear();
+        indexCurrent = false;
+    }
+    
+    @Override
+    public T[] setSize(int newSize) {
+        indexCurrent = false;
+        return super.setSize(newSize);
+    }
+    
+    @Override
+    public void truncate(int newSize) {
+        super.truncate(newSize);
+        indexCurrent = false;
+    }
+}
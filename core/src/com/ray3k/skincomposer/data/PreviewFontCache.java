@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2022 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.data;
+
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Shares the BitmapFonts used to preview FontData between preview refreshes and scene composer widgets. Fonts are
+ * keyed by file, modification time, flip, scaling, and markup settings, so editing a FontData produces a new entry.
+ * Fonts are reference counted. Unreferenced fonts are kept for reuse up to a limit and disposed after that.
+ */
+public class PreviewFontCache {
+    private static final int MAX_IDLE_FONTS = 8;
+    private static final ObjectMap<String, FontEntry> fonts = new ObjectMap<>();
+    private static final ObjectMap<BitmapFont, FontEntry> fontEntries = new ObjectMap<>();
+    private static final Array<FontEntry> idleFonts = new Array<>();
+    
+    private static class FontEntry {
+        String key;
+        BitmapFont font;
+        int references;
+    }
+    
+    /**
+     * Returns the preview font for the FontData. The font is shared and must be returned with freeFont() instead of
+     * being disposed.
+     * @param fontData
+     * @return
+     */
+    public static BitmapFont obtainFont(FontData fontData) {
+        var key = fontData.file.path() + "|" + fontData.file.lastModified() + "|" + fontData.isFlip() + "|"
+                + fontData.getScaling() + "|" + fontData.isMarkupEnabled();
+        var entry = fonts.get(key);
+        if (entry == null) {
+            var font = new BitmapFont(fontData.file, fontData.isFlip());
+            if (fontData.getScaling() != -1) font.getData().setScale(fontData.getScaling() / font.getCapHeight());
+            font.getData().markupEnabled = fontData.isMarkupEnabled();
+            font.getData().flipped = fontData.isFlip();
+            
+            entry = new FontEntry();
+            entry.key = key;
+            entry.font = font;
+            fonts.put(key, entry);
+            fontEntries.put(font, entry);
+        }
+        if (entry.references++ == 0) idleFonts.removeValue(entry, true);
+        return entry.font;
+    }
+    
+    public static void freeFont(BitmapFont font) {
+        var entry = fontEntries.get(font);
+        if (entry == null || entry.references == 0) return;
+        
+        if (--entry.references == 0) {
+            idleFonts.add(entry);
+            while (idleFonts.size > MAX_IDLE_FONTS) {
+                var removed = idleFonts.removeIndex(0);
+                fonts.remove(removed.key);
+                fontEntries.remove(removed.font);
+                removed.font.dispose();
+            }
+        }
+    }
+}
@@ -34,12 +34,22 @@ import com.badlogic.gdx.utils.*;
 import com.ray3k.skincomposer.Main;
 import com.ray3k.skincomposer.data.DrawableData.DrawableType;
 import com.ray3k.skincomposer.data.JsonData.ExportFormat;
+import com.ray3k.skincomposer.data.ProjectReader.ProgressListener;
 import com.ray3k.skincomposer.dialog.scenecomposer.DialogSceneComposerModel;
 import com.ray3k.skincomposer.dialog.scenecomposer.DialogSceneComposerModel.SimRootGroup;
+import com.ray3k.skincomposer.utils.ImageMetadata;
 import com.ray3k.skincomposer.utils.Utils;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import static com.ray3k.skincomposer.Main.dialogFactory;
 import static com.ray3k.skincomposer.Main.projectData;
 import static com.ray3k.skincomposer.Main.rootTable;
 
@@ -54,6 +64,18 @@ public class ProjectData implements Json.Serializable {
     private final AtlasData atlasData;
     private String loadedVersion;
     private Json json;
+    /**
+     * Incremented for every change to the project so that a background save can tell if the project was edited after
+     * its snapshot was taken.
+     */
+    private int changeCount;
+    private static final ExecutorService saveExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        var thread = new Thread(runnable, "Project Save");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final EditJournal editJournal;
+    private final ResourceResolver resourceResolver = new ResourceResolver();
     
     public ProjectData() {
         json = new Json(JsonWriter.OutputType.minimal);
@@ -105,6 +127,7 @@ public class ProjectData implements Json.Serializable {
         
         jsonData = new JsonData();
         atlasData = new AtlasData();
+        editJournal = new EditJournal(this, json, saveExecutor);
         
         changesSaved = false;
         newProject = true;
@@ -323,8 +346,24 @@ public class ProjectData implements Json.Serializable {
     }
     
     public void setChangesSaved(boolean changesSaved) {
+        if (!changesSaved) changeCount++;
         this.changesSaved = changesSaved;
         newProject = false;
+        updateTitle();
+    }
+    
+    /**
+     * Marks the project as changed by an edit that is not in the undo history and records it in the edit journal.
+     * Must be called after the edit has been applied.
+     * @param label A description of the edit.
+     * @param changedData The data changed by the edit. See EditJournal.record().
+     */
+    public void recordChange(String label, Object... changedData) {
+        setChangesSaved(false);
+        editJournal.record(label, changedData);
+    }
+    
+    private void updateTitle() {
         String title = "Skin Composer";
         if (saveFile != null && saveFile.exists()) {
             title += " - " + (isFullPathInRecentFiles() ? saveFile.path() : saveFile.nameWithoutExtension());
@@ -341,7 +380,13 @@ public class ProjectData implements Json.Serializable {
         return newProject;
     }
     
-    private void moveImportedFiles(FileHandle oldSave, FileHandle newSave) {
+    /**
+     * Requests the imported files of the project to be moved into the data folder of the new save file.
+     * @param relocator
+     * @param oldSave
+     * @param newSave
+     */
+    private void moveImportedFiles(ResourceRelocator relocator, FileHandle oldSave, FileHandle newSave) {
         FileHandle tempImportFolder = Main.appFolder.child("temp/" + getId() + "_data/");
         FileHandle localImportFolder;
         if (oldSave != null) {
@@ -353,101 +398,77 @@ public class ProjectData implements Json.Serializable {
         
         for (DrawableData drawableData : atlasData.getDrawables()) {
             if (drawableData.file != null && drawableData.file.exists()) {
-                targetFolder.mkdirs();
-                //drawable files in the temp folder
-                if (drawableData.file.parent().equals(tempImportFolder)) {
-                    drawableData.file.moveTo(targetFolder);
-                    drawableData.file = targetFolder.child(drawableData.file.name());
-                }
-                //drawable files in the folder next to the old save
-                else if (localImportFolder != null && !localImportFolder.equals(targetFolder) && drawableData.file.parent().equals(localImportFolder)) {
-                    drawableData.file.copyTo(targetFolder);
-                    drawableData.file = targetFolder.child(drawableData.file.name());
-                }
+                drawableData.file = relocateImportedFile(relocator, drawableData.file, tempImportFolder, localImportFolder, targetFolder);
             }
         }
         
         for (DrawableData drawableData : atlasData.getFontDrawables()) {
             if (drawableData.file != null && drawableData.file.exists()) {
-                targetFolder.mkdirs();
-                //drawable files in the temp folder
-                if (drawableData.file.parent().equals(tempImportFolder)) {
-                    drawableData.file.moveTo(targetFolder);
-                    drawableData.file = targetFolder.child(drawableData.file.name());
-                }
-                //drawable files in the folder next to the old save
-                else if (localImportFolder != null && !localImportFolder.equals(targetFolder) && drawableData.file.parent().equals(localImportFolder)) {
-                    drawableData.file.copyTo(targetFolder);
-                    drawableData.file = targetFolder.child(drawableData.file.name());
-                }
+                drawableData.file = relocateImportedFile(relocator, drawableData.file, tempImportFolder, localImportFolder, targetFolder);
             }
         }
         
         for (FontData fontData : jsonData.getFonts()) {
             if (fontData.file.exists()) {
-                targetFolder.mkdirs();
-                
-                //font files in the temp folder
-                if (fontData.file.parent().equals(tempImportFolder)) {
-                    fontData.file.moveTo(targetFolder);
-                    fontData.file = targetFolder.child(fontData.file.name());
-                }
-                //font files in the data folder next to the old save
-                else if (localImportFolder != null && !localImportFolder.equals(targetFolder) && fontData.file.parent().equals(localImportFolder)) {
-                    fontData.file.copyTo(targetFolder);
-                    fontData.file = targetFolder.child(fontData.file.name());
-                }
+                fontData.file = relocateImportedFile(relocator, fontData.file, tempImportFolder, localImportFolder, targetFolder);
             }
         }
         
         for (FreeTypeFontData fontData : jsonData.getFreeTypeFonts()) {
             if (fontData.file != null && fontData.file.exists()) {
-                targetFolder.mkdirs();
-                
-                //font files in the temp folder
-                if (fontData.file.parent().equals(tempImportFolder)) {
-                    fontData.file.moveTo(targetFolder);
-                    fontData.file = targetFolder.child(fontData.file.name());
-                }
-                //font files in the data folder next to the old save
-                else if (localImportFolder != null && !localImportFolder.equals(targetFolder) && fontData.file.parent().equals(localImportFolder)) {
-                    fontData.file.copyTo(targetFolder);
-                    fontData.file = targetFolder.child(fontData.file.name());
-                }
+                fontData.file = relocateImportedFile(relocator, fontData.file, tempImportFolder, localImportFolder, targetFolder);
             }
         }
     }
     
+    private static FileHandle relocateImportedFile(ResourceRelocator relocator, FileHandle file, FileHandle tempImportFolder, FileHandle localImportFolder, FileHandle targetFolder) {
+        //files in the temp folder
+        if (file.parent().equals(tempImportFolder)) {
+            return relocator.move(file, targetFolder);
+        }
+        //files in the data folder next to the old save
+        else if (localImportFolder != null && !localImportFolder.equals(targetFolder) && file.parent().equals(localImportFolder)) {
+            return relocator.copy(file, targetFolder);
+        }
+        return file;
+    }
+    
     public void makeResourcesRelative(FileHandle saveFile) {
+        var relocator = new ResourceRelocator();
+        requestResourcesRelative(relocator, saveFile);
+        relocator.run();
+        resourceResolver.clear();
+    }
+    
+    /**
+     * Requests every resource of the project to be copied into the data folder of the save file.
+     * @param relocator
+     * @param saveFile
+     */
+    private void requestResourcesRelative(ResourceRelocator relocator, FileHandle saveFile) {
         FileHandle targetFolder = saveFile.sibling(saveFile.nameWithoutExtension() + "_data/");
         
         for (DrawableData drawableData : atlasData.getDrawables()) {
             if (drawableData.file != null && drawableData.file.exists() && !targetFolder.equals(drawableData.file.parent())) {
-                targetFolder.mkdirs();
-                drawableData.file.copyTo(targetFolder);
-                drawableData.file = targetFolder.child(drawableData.file.name());
+                drawableData.file = relocator.copy(drawableData.file, targetFolder);
             }
         }
         
         for (DrawableData drawableData : atlasData.getFontDrawables()) {
-            if (drawableData.file.exists() && !targetFolder.equals(drawableData.file.parent())) {
-                targetFolder.mkdirs();
-                drawableData.file.copyTo(targetFolder);
-                drawableData.file = targetFolder.child(drawableData.file.name());
+            if (drawableData.file != null && drawableData.file.exists() && !targetFolder.equals(drawableData.file.parent())) {
+                drawableData.file = relocator.copy(drawableData.file, targetFolder);
             }
         }
         
         for (FontData fontData : jsonData.getFonts()) {
             if (fontData.file.exists() && !targetFolder.equals(fontData.file.parent())) {
-                fontData.file.copyTo(targetFolder);
-                fontData.file = targetFolder.child(fontData.file.name());
+                fontData.file = relocator.copy(fontData.file, targetFolder);
             }
         }
         
         for (FreeTypeFontData fontData : jsonData.getFreeTypeFonts()) {
             if (fontData.file != null && fontData.file.exists() && !targetFolder.equals(fontData.file.parent())) {
-                fontData.file.copyTo(targetFolder);
-                fontData.file = targetFolder.child(fontData.file.name());
+                fontData.file = relocator.copy(fontData.file, targetFolder);
             }
         }
     }
@@ -456,47 +477,266 @@ public class ProjectData implements Json.Serializable {
         makeResourcesRelative(saveFile);
     }
     
-    public void save(FileHandle file) {
-        moveImportedFiles(saveFile, file);
+    /**
+     * Saves the project without blocking the UI. Must be called on the GL thread. The project is serialized into an
+     * immutable snapshot immediately, then the snapshot is formatted and written on the save thread. Resources that
+     * are moved into the data folder are relocated on the save thread as well, before the file is written, and the
+     * loading dialog is shown until they are in place. Saves are written in the order they are requested. The file is
+     * replaced atomically, so a crash while saving leaves the previous version of the file intact.
+     * @param file
+     * @param listener Run on the GL thread after the file is written. It is not run if the save fails. May be null.
+     */
+    public void save(FileHandle file, Runnable listener) {
+        //the project points at the new paths right away, the files are relocated on the save thread
+        var relocator = new ResourceRelocator();
+        moveImportedFiles(relocator, saveFile, file);
         
         if (projectData.areResourcesRelative()) {
-            makeResourcesRelative(file);
+            requestResourcesRelative(relocator, file);
         }
+        boolean relocating = relocator.hasRequests();
         
         saveFile = file;
         putRecentFile(file.path());
-        file.writeString(json.prettyPrint(this), false, "UTF8");
-        setChangesSaved(true);
+        
+        var snapshot = new SaveSnapshot();
+        snapshot.file = file;
+        snapshot.relocator = relocator;
+        snapshot.changeCount = changeCount;
+        snapshot.imageMetadataFile = getImageMetadataFile();
+        snapshot.images = getImageFiles();
+        if (BinaryProjectFormat.isBinaryExtension(file)) {
+            var bytes = new ByteArrayOutputStream();
+            try {
+                BinaryProjectFormat.write(json, this, bytes);
+            } catch (IOException e) {
+                throw new GdxRuntimeException("Error serializing project: " + file, e);
+            }
+            snapshot.binary = bytes.toByteArray();
+        } else {
+            snapshot.text = json.toJson(this);
+        }
+        
+        saveExecutor.execute(() -> {
+            try {
+                snapshot.relocator.run();
+                resourceResolver.clear();
+                
+                //pretty printing is the expensive part of writing a text project, so it is done here instead of on the GL thread
+                var bytes = snapshot.binary != null ? snapshot.binary : json.prettyPrint(snapshot.text).getBytes(StandardCharsets.UTF_8);
+                Utils.writeAtomically(snapshot.file, bytes);
+                ImageMetadata.save(snapshot.imageMetadataFile, snapshot.images);
+                
+                Gdx.app.postRunnable(() -> {
+                    //edits made while the snapshot was written are not in the file
+                    if (changeCount == snapshot.changeCount) {
+                        setChangesSaved(true);
+                    } else {
+                        updateTitle();
+                    }
+                    if (listener != null) listener.run();
+                });
+            } catch (Exception e) {
+                Gdx.app.postRunnable(() -> {
+                    Gdx.app.error(getClass().getName(), "Error while saving project: " + snapshot.file.path(), e);
+                    //the journal was restarted for the snapshot and no longer matches the file on disk
+                    editJournal.stop();
+                    dialogFactory.showDialogError("Save Error...", "Error while saving the project.\nThe previously saved file is unchanged.\n\nOpen log?");
+                });
+            }
+        });
+        
+        //the journal is written on the save thread, so its new header follows the file that it refers to
+        editJournal.start(file, null);
+        
+        //resources are read from their new paths, so nothing may use them until they are relocated
+        if (relocating) {
+            dialogFactory.showDialogLoading(this::finishSaving);
+        }
+    }
+    
+    public void save(FileHandle file) {
+        save(file, null);
     }
     
     public void save() {
         save(saveFile);
     }
     
-    public void load(FileHandle file) {
-        ProjectData instance = json.fromJson(ProjectData.class, file.reader("UTF8"));
-        newProject = instance.newProject;
-        jsonData.set(instance.jsonData);
-        for (FreeTypeFontData font : jsonData.getFreeTypeFonts()) {
-            font.createBitmapFont();
+    /**
+     * Blocks until the saves that have been requested are written. Used before the application exits.
+     */
+    public void finishSaving() {
+        try {
+            saveExecutor.submit(() -> {}).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Gdx.app.error(getClass().getName(), "Error while finishing saves", e);
         }
-        atlasData.set(instance.atlasData);
-        preferences.clear();
-        preferences.putAll(instance.preferences);
-        
-        saveFile = file;
-        putRecentFile(file.path());
-        setLastOpenSavePath(file.parent().path() + "/");
-        atlasData.atlasCurrent = false;
-        loadedVersion = instance.loadedVersion;
+    }
+    
+    public boolean load(FileHandle file) {
+        return load(file, null);
+    }
+    
+    /**
+     * Loads the project from the file. The file is streamed into new JsonData and AtlasData on the calling thread,
+     * which may be the loading thread so that the progress can be displayed. They replace the contents of the current
+     * project on the GL thread once the file has been read completely, so the current project is left untouched if
+     * the file can't be read. Errors are logged and reported to the user.
+     * @param file
+     * @param listener Notified of the progress while the file is read. May be null.
+     * @return true if the project was loaded.
+     */
+    public boolean load(FileHandle file, ProgressListener listener) {
+        Utils.runOnGLThread(editJournal::stop);
+        finishSaving();
+        resourceResolver.clear();
         
-        correctFilePaths();
+        try {
+            var loadedJsonData = new JsonData();
+            var loadedAtlasData = new AtlasData();
+            var projectReader = new ProjectReader(json, loadedJsonData, loadedAtlasData, listener);
+            var recoveredSegments = EditJournal.read(file);
+            JsonValue values;
+            if (recoveredSegments != null) {
+                //edits recorded after the last save are replayed onto the saved project
+                try {
+                    values = BinaryProjectFormat.isBinary(file) ? BinaryProjectFormat.read(file.read()) : new JsonReader().parse(file);
+                } catch (IOException e) {
+                    throw new SerializationException("Error reading file: " + file, e);
+                }
+                EditJournal.apply(values, recoveredSegments);
+                projectReader.read(values);
+            } else if (BinaryProjectFormat.isBinary(file)) {
+                try {
+                    values = BinaryProjectFormat.read(file.read());
+                } catch (IOException e) {
+                    throw new SerializationException("Error reading file: " + file, e);
+                }
+                projectReader.read(values);
+            } else {
+                try (var reader = file.reader("UTF8")) {
+                    values = projectReader.read(reader, file.length());
+                } catch (IOException e) {
+                    throw new SerializationException("Error reading file: " + file, e);
+                }
+            }
+            loadedJsonData.translateFontDrawables(loadedAtlasData);
+            
+            ObjectMap<String, Object> loadedPreferences = json.readValue("preferences", ObjectMap.class, values);
+            String version = values.getString("version", "none");
+            SimRootGroup rootActor = json.readValue("sceneComposer", SimRootGroup.class, values);
+            prefetchResourceFolders(file, loadedJsonData, loadedAtlasData);
+            
+            Utils.runOnGLThread(() -> {
+                jsonData.clear();
+                jsonData.set(loadedJsonData);
+                atlasData.clear();
+                atlasData.set(loadedAtlasData);
+                atlasData.atlasCurrent = false;
+                loadedVersion = version;
+                DialogSceneComposerModel.rootActor = rootActor;
+                
+                FreeTypeFontData.createBitmapFonts(jsonData.getFreeTypeFonts());
+                preferences.clear();
+                if (loadedPreferences != null) preferences.putAll(loadedPreferences);
+                
+                saveFile = file;
+                putRecentFile(file.path());
+                setLastOpenSavePath(file.parent().path() + "/");
+                ImageMetadata.load(getImageMetadataFile());
+                
+                correctFilePaths();
+                
+                if (verifyDrawablePaths().size == 0 && verifyFontPaths().size == 0) {
+                    atlasData.produceAtlas();
+                    rootTable.populate();
+                }
+                editJournal.start(file, recoveredSegments);
+                if (recoveredSegments != null) {
+                    setChangesSaved(false);
+                    dialogFactory.showMessageDialog("Recovered Changes", "Unsaved changes from a previous session were recovered.\nSave the project to keep them.", null);
+                } else {
+                    setChangesSaved(true);
+                }
+            });
+            return true;
+        } catch (Exception e) {
+            Gdx.app.error(getClass().getName(), "Error while loading project: " + file.path(), e);
+            Gdx.app.postRunnable(() -> {
+                //the current project is still open and is journaled again if it matches its file
+                if (saveFile != null && changesSaved) editJournal.start(saveFile, null);
+                dialogFactory.showDialogError("Load Error...", "Error while loading project.\n\nOpen log?");
+            });
+            return false;
+        }
+    }
+    
+    /**
+     * The image metadata of each project is kept in the app folder, keyed by the path of the project file, so that no
+     * data folder is created next to projects that don't use one.
+     * @return
+     */
+    private FileHandle getImageMetadataFile() {
+        var key = UUID.nameUUIDFromBytes(saveFile.file().getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+        return Main.appFolder.child("image-metadata/" + key + ".json");
+    }
+    
+    private Array<FileHandle> getImageFiles() {
+        var files = new Array<FileHandle>();
+        for (var drawable : atlasData.getDrawables()) {
+            if (drawable.file != null) files.add(drawable.file);
+        }
+        for (var drawable : atlasData.getFontDrawables()) {
+            if (drawable.file != null) files.add(drawable.file);
+        }
+        return files;
+    }
+    
+    /**
+     * The state of a save that is taken on the GL thread. Nothing in it is shared with the project model.
+     */
+    private static class SaveSnapshot {
+        FileHandle file;
+        byte[] binary;
+        String text;
+        FileHandle imageMetadataFile;
+        Array<FileHandle> images;
+        ResourceRelocator relocator;
+        int changeCount;
+    }
+    
+    /**
+     * Lists the folders of every project resource with the resource resolver, so that verifying and correcting the
+     * paths of a project does not check each file on its own. Does not require the GL thread.
+     * @param projectFile
+     * @param loadedJsonData
+     * @param loadedAtlasData
+     */
+    private void prefetchResourceFolders(FileHandle projectFile, JsonData loadedJsonData, AtlasData loadedAtlasData) {
+        FileHandle targetFolder = projectFile.sibling(projectFile.nameWithoutExtension() + "_data/");
+        var files = new Array<FileHandle>();
+        for (DrawableData drawable : loadedAtlasData.getDrawables()) files.add(drawable.file);
+        for (DrawableData drawable : loadedAtlasData.getFontDrawables()) files.add(drawable.file);
+        for (FontData font : loadedJsonData.getFonts()) files.add(font.file);
+        for (FreeTypeFontData font : loadedJsonData.getFreeTypeFonts()) files.add(font.file);
         
-        if (verifyDrawablePaths().size == 0 && verifyFontPaths().size == 0) {
-            atlasData.produceAtlas();
-            rootTable.populate();
+        for (int i = 0, n = files.size; i < n; i++) {
+            if (files.get(i) != null) files.add(targetFolder.child(files.get(i).name()));
         }
-        setChangesSaved(true);
+        resourceResolver.prefetch(files);
+    }
+    
+    /**
+     * The file that is used for a resource. Relative resources are expected in the data folder next to the project.
+     * @param file
+     * @return
+     */
+    private FileHandle resourceFile(FileHandle file) {
+        if (!areResourcesRelative()) return file;
+        return saveFile.sibling(saveFile.nameWithoutExtension() + "_data/").child(file.name());
     }
     
     /**
@@ -508,45 +748,24 @@ public class ProjectData implements Json.Serializable {
     public Array<DrawableData> verifyDrawablePaths() {
         Array<DrawableData> errors = new Array<>();
         
-        if (!areResourcesRelative()) {
-            for (DrawableData drawable : atlasData.getDrawables()) {
-                if (drawable.type != DrawableType.CUSTOM && drawable.type != DrawableType.PIXEL && (drawable.file == null || !drawable.file.exists())) {
-                    errors.add(drawable);
-                }
-            }
-            
-            for (DrawableData drawable : atlasData.getFontDrawables()) {
-                if (drawable.type != DrawableType.CUSTOM && drawable.type != DrawableType.PIXEL && (drawable.file == null || !drawable.file.exists())) {
-                    errors.add(drawable);
-                }
-            }
-        } else {
-            FileHandle targetFolder = saveFile.sibling(saveFile.nameWithoutExtension() + "_data/");
-            
-            for (DrawableData drawable : atlasData.getDrawables()) {
-                if (drawable.type != DrawableType.CUSTOM && drawable.type != DrawableType.PIXEL) {
-                    if (drawable.file == null) {
-                        errors.add(drawable);
-                    } else {
-                        FileHandle localFile = targetFolder.child(drawable.file.name());
-                        if (!localFile.exists()) {
-                            errors.add(drawable);
-                        }
-                    }
-                }
+        var files = new Array<FileHandle>();
+        for (DrawableData drawable : atlasData.getDrawables()) {
+            if (drawable.file != null) files.add(resourceFile(drawable.file));
+        }
+        for (DrawableData drawable : atlasData.getFontDrawables()) {
+            if (drawable.file != null) files.add(resourceFile(drawable.file));
+        }
+        resourceResolver.prefetch(files);
+        
+        for (DrawableData drawable : atlasData.getDrawables()) {
+            if (drawable.type != DrawableType.CUSTOM && drawable.type != DrawableType.PIXEL && (drawable.file == null || !resourceResolver.exists(resourceFile(drawable.file)))) {
+                errors.add(drawable);
             }
-            
-            for (DrawableData drawable : atlasData.getFontDrawables()) {
-                if (drawable.type != DrawableType.CUSTOM && drawable.type != DrawableType.PIXEL) {
-                    if (drawable.file == null) {
-                        errors.add(drawable);
-                    } else {
-                        FileHandle localFile = targetFolder.child(drawable.file.name());
-                        if (!localFile.exists()) {
-                            errors.add(drawable);
-                        }
-                    }
-                }
+        }
+        
+        for (DrawableData drawable : atlasData.getFontDrawables()) {
+            if (drawable.type != DrawableType.CUSTOM && drawable.type != DrawableType.PIXEL && (drawable.file == null || !resourceResolver.exists(resourceFile(drawable.file)))) {
+                errors.add(drawable);
             }
         }
         return errors;
@@ -555,24 +774,15 @@ public class ProjectData implements Json.Serializable {
     public Array<FontData> verifyFontPaths() {
         Array<FontData> errors = new Array<>();
         
-        if (!areResourcesRelative()) {
-            for (FontData font : jsonData.getFonts()) {
-                if (font.file == null || !font.file.exists()) {
-                    errors.add(font);
-                }
-            }
-        } else {
-            FileHandle targetFolder = saveFile.sibling(saveFile.nameWithoutExtension() + "_data/");
-            
-            for (FontData font : jsonData.getFonts()) {
-                if (font.file == null) {
-                    errors.add(font);
-                } else {
-                    FileHandle localFile = targetFolder.child(font.file.name());
-                    if (!localFile.exists()) {
-                        errors.add(font);
-                    }
-                }
+        var files = new Array<FileHandle>();
+        for (FontData font : jsonData.getFonts()) {
+            if (font.file != null) files.add(resourceFile(font.file));
+        }
+        resourceResolver.prefetch(files);
+        
+        for (FontData font : jsonData.getFonts()) {
+            if (font.file == null || !resourceResolver.exists(resourceFile(font.file))) {
+                errors.add(font);
             }
         }
         return errors;
@@ -581,24 +791,20 @@ public class ProjectData implements Json.Serializable {
     public Array<FreeTypeFontData> verifyFreeTypeFontPaths() {
         Array<FreeTypeFontData> errors = new Array<>();
         
-        if (!areResourcesRelative()) {
-            for (var font : jsonData.getFreeTypeFonts()) {
-                if (font.useCustomSerializer && (font.file == null || !font.file.exists())) {
-                    errors.add(font);
-                }
-            }
-        } else {
-            FileHandle targetFolder = saveFile.sibling(saveFile.nameWithoutExtension() + "_data/");
-            
-            for (var font : jsonData.getFreeTypeFonts()) {
-                if (font.file != null) {
-                    FileHandle localFile = targetFolder.child(font.file.name());
-                    if (!localFile.exists()) {
-                        errors.add(font);
-                    }
-                } else if (font.useCustomSerializer) {
+        var files = new Array<FileHandle>();
+        for (var font : jsonData.getFreeTypeFonts()) {
+            if (font.file != null) files.add(resourceFile(font.file));
+        }
+        resourceResolver.prefetch(files);
+        
+        for (var font : jsonData.getFreeTypeFonts()) {
+            if (font.file != null) {
+                //relative fonts are reported even if they don't use the custom serializer
+                if ((areResourcesRelative() || font.useCustomSerializer) && !resourceResolver.exists(resourceFile(font.file))) {
                     errors.add(font);
                 }
+            } else if (font.useCustomSerializer) {
+                errors.add(font);
             }
         }
         return errors;
@@ -611,27 +817,27 @@ public class ProjectData implements Json.Serializable {
         
         if (targetFolder.exists()) {
             for (DrawableData drawableData : atlasData.getDrawables()) {
-                if (drawableData.type != DrawableType.PIXEL && (resourcesRelative || drawableData.file != null && !drawableData.file.exists())) {
+                if (drawableData.type != DrawableType.PIXEL && (resourcesRelative || drawableData.file != null && !resourceResolver.exists(drawableData.file))) {
                     FileHandle newFile = targetFolder.child(drawableData.file.name());
-                    if (newFile.exists()) {
+                    if (resourceResolver.exists(newFile)) {
                         drawableData.file = newFile;
                     }
                 }
             }
             
             for (DrawableData drawableData : atlasData.getFontDrawables()) {
-                if (resourcesRelative || drawableData.file != null && !drawableData.file.exists()) {
+                if (resourcesRelative || drawableData.file != null && !resourceResolver.exists(drawableData.file)) {
                     FileHandle newFile = targetFolder.child(drawableData.file.name());
-                    if (newFile.exists()) {
+                    if (resourceResolver.exists(newFile)) {
                         drawableData.file = newFile;
                     }
                 }
             }
             
             for (FontData fontData : jsonData.getFonts()) {
-                if (resourcesRelative || !fontData.file.exists()) {
+                if (resourcesRelative || !resourceResolver.exists(fontData.file)) {
                     FileHandle newFile = targetFolder.child(fontData.file.name());
-                    if (newFile.exists()) {
+                    if (resourceResolver.exists(newFile)) {
                         fontData.file = newFile;
                     }
                 }
@@ -639,8 +845,8 @@ public class ProjectData implements Json.Serializable {
         }
     }
     
-    public void load() {
-        load(saveFile);
+    public boolean load() {
+        return load(saveFile);
     }
     
     public void clear() {
@@ -650,6 +856,7 @@ public class ProjectData implements Json.Serializable {
         setMaxUndos(30);
         setResourcesRelative(false);
         
+        editJournal.stop();
         jsonData.clear();
         atlasData.clear();
         saveFile = null;
@@ -690,6 +897,15 @@ public class ProjectData implements Json.Serializable {
         DialogSceneComposerModel.rootActor = json.readValue("sceneComposer", SimRootGroup.class, jsonValue);
     }
 
+    public EditJournal getEditJournal() {
+        return editJournal;
+    }
+    
+    public ObjectMap<String, Object> getPreferences() {
+        return preferences;
+    }
+    
+
     public JsonData getJsonData() {
         return jsonData;
     }
@@ -0,0 +1,541 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2022 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.data;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.JsonValue.ValueType;
+import com.badlogic.gdx.utils.SerializationException;
+import com.badlogic.gdx.utils.reflect.ClassReflection;
+import com.badlogic.gdx.utils.reflect.ReflectionException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.function.Consumer;
+
+import static com.ray3k.skincomposer.Main.*;
+
+/**
+ * Reads an SCMP project file as a stream of tokens. The drawables, colors, fonts, styles, and custom classes are
+ * deserialized one at a time and added directly to the AtlasData and JsonData, so only a single element is ever held
+ * as a JsonValue. Understands the same relaxed JSON that libGDX's JsonReader does: unquoted names and values, optional
+ * commas, and comments.
+ */
+public class ProjectReader {
+    private static final int BUFFER_SIZE = 8192;
+    private final Json json;
+    private final JsonData jsonData;
+    private final AtlasData atlasData;
+    private final ProgressListener listener;
+    private Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long charsRead;
+    private long length;
+    private final StringBuilder builder = new StringBuilder();
+    
+    public interface ProgressListener {
+        /**
+         * Called from the reading thread as the file is consumed.
+         * @param progress The fraction of the file that has been read from 0 to 1.
+         */
+        void progress(float progress);
+    }
+    
+    /**
+     * @param json The Json instance configured with the project's serializers.
+     * @param jsonData Must be cleared before reading.
+     * @param atlasData Must be cleared before reading.
+     * @param listener Notified of the progress. May be null.
+     */
+    public ProjectReader(Json json, JsonData jsonData, AtlasData atlasData, ProgressListener listener) {
+        this.json = json;
+        this.jsonData = jsonData;
+        this.atlasData = atlasData;
+        this.listener = listener;
+    }
+    
+    /**
+     * Streams the project into the JsonData and AtlasData. The reader is not closed.
+     * @param reader
+     * @param length The length of the file in bytes, used to calculate progress.
+     * @return The remaining top level values of the project, such as the preferences and version.
+     * @throws IOException
+     */
+    public JsonValue read(Reader reader, long length) throws IOException {
+        this.reader = reader;
+        this.length = Math.max(length, 1);
+        position = 0;
+        limit = 0;
+        charsRead = 0;
+        
+        var root = new JsonValue(ValueType.object);
+        JsonValue last = null;
+        expect('{');
+        String name;
+        while ((name = readName()) != null) {
+            switch (name) {
+                case "atlasData":
+                    readAtlasData();
+                    break;
+                case "jsonData":
+                    readJsonData();
+                    break;
+                default:
+                    var value = readValue();
+                    value.name = name;
+                    last = addChild(root, last, value);
+                    break;
+            }
+        }
+        if (listener != null) listener.progress(1);
+        return root;
+    }
+    
+    /**
+     * Reads a project that has already been parsed, such as one read from the binary format, into the JsonData and
+     * AtlasData.
+     * @param project
+     */
+    public void read(JsonValue project) {
+        var atlasValue = project.get("atlasData");
+        if (atlasValue != null) {
+            atlasData.atlasCurrent = atlasValue.getBoolean("atlasCurrent", false);
+            forEach(atlasValue.get("drawables"), this::addDrawable);
+            forEach(atlasValue.get("fontDrawables"), this::addFontDrawable);
+        }
+        atlasData.assignDrawableTypes();
+        
+        var jsonValue = project.get("jsonData");
+        if (jsonValue != null) {
+            forEach(jsonValue.get("colors"), this::addColor);
+            forEach(jsonValue.get("fonts"), this::addFont);
+            forEach(jsonValue.get("freeTypeFonts"), this::addFreeTypeFont);
+            jsonData.getClassStyleMap().clear();
+            var classStyleMap = jsonValue.get("classStyleMap");
+            if (classStyleMap != null) {
+                for (var classValue : classStyleMap) {
+                    var styles = addStyleClass(classValue.name);
+                    if (styles != null) forEach(classValue, value -> addStyle(styles, value));
+                }
+            }
+            forEach(jsonValue.get("customClasses"), this::addCustomClass);
+        }
+        jsonData.correctPreviewFonts();
+    }
+    
+    private static void forEach(JsonValue array, Consumer<JsonValue> consumer) {
+        if (array == null || !array.isArray()) return;
+        for (var value = array.child; value != null; value = value.next) {
+            consumer.accept(value);
+        }
+    }
+    
+    private void readAtlasData() throws IOException {
+        expect('{');
+        String name;
+        while ((name = readName()) != null) {
+            switch (name) {
+                case "atlasCurrent":
+                    atlasData.atlasCurrent = readValue().asBoolean();
+                    break;
+                case "drawables":
+                    readArray(this::addDrawable);
+                    break;
+                case "fontDrawables":
+                    readArray(this::addFontDrawable);
+                    break;
+                default:
+                    readValue();
+                    break;
+            }
+        }
+        atlasData.assignDrawableTypes();
+    }
+    
+    private void readJsonData() throws IOException {
+        expect('{');
+        String name;
+        while ((name = readName()) != null) {
+            switch (name) {
+                case "colors":
+                    readArray(this::addColor);
+                    break;
+                case "fonts":
+                    readArray(this::addFont);
+                    break;
+                case "freeTypeFonts":
+                    readArray(this::addFreeTypeFont);
+                    break;
+                case "classStyleMap":
+                    readClassStyleMap();
+                    break;
+                case "customClasses":
+                    readArray(this::addCustomClass);
+                    break;
+                default:
+                    readValue();
+                    break;
+            }
+        }
+        jsonData.correctPreviewFonts();
+    }
+    
+    private void readClassStyleMap() throws IOException {
+        jsonData.getClassStyleMap().clear();
+        
+        expect('{');
+        String name;
+        while ((name = readName()) != null) {
+            var styles = addStyleClass(name);
+            if (styles == null) {
+                readValue();
+            } else {
+                readArray(value -> addStyle(styles, value));
+            }
+        }
+    }
+    
+    private void addDrawable(JsonValue value) {
+        atlasData.getDrawables().add(json.readValue(DrawableData.class, value));
+    }
+    
+    private void addFontDrawable(JsonValue value) {
+        atlasData.getFontDrawables().add(json.readValue(DrawableData.class, value));
+    }
+    
+    private void addColor(JsonValue value) {
+        jsonData.getColors().add(json.readValue(ColorData.class, value));
+    }
+    
+    private void addFont(JsonValue value) {
+        jsonData.getFonts().add(json.readValue(FontData.class, value));
+    }
+    
+    private void addFreeTypeFont(JsonValue value) {
+        jsonData.getFreeTypeFonts().add(json.readValue(FreeTypeFontData.class, value));
+    }
+    
+    private void addCustomClass(JsonValue value) {
+        jsonData.getCustomClasses().add(json.readValue(CustomClass.class, value));
+    }
+    
+    /**
+     * Adds an empty style list for the class to the class style map.
+     * @param className
+     * @return The list or null if the class does not exist.
+     */
+    private NameIndexedArray<StyleData> addStyleClass(String className) {
+        Class clazz;
+        try {
+            clazz = ClassReflection.forName(className);
+        } catch (ReflectionException e) {
+            Gdx.app.error(getClass().getName(), "Error parsing json data during file read", e);
+            Gdx.app.postRunnable(() -> dialogFactory.showDialogError("Error while reading file...", "Error while attempting to read save file.\nPlease ensure that file is not corrupted.\n\nOpen error log?"));
+            return null;
+        }
+        
+        var styles = new NameIndexedArray<StyleData>(style -> style.name);
+        jsonData.getClassStyleMap().put(clazz, styles);
+        return styles;
+    }
+    
+    private void addStyle(NameIndexedArray<StyleData> styles, JsonValue value) {
+        var styleData = json.readValue(StyleData.class, value);
+        styleData.jsonData = jsonData;
+        styles.add(styleData);
+    }
+    
+    /**
+     * Reads an array and passes each of its elements to the consumer as soon as the element is complete.
+     * @param consumer
+     * @throws IOException
+     */
+    private void readArray(Consumer<JsonValue> consumer) throws IOException {
+        int c = skipWhitespace();
+        if (c != '[') {
+            //a null or otherwise empty collection
+            readValue();
+            return;
+        }
+        read();
+        
+        while (skipWhitespace() != ']') {
+            consumer.accept(readValue());
+        }
+        read();
+    }
+    
+    /**
+     * Reads the name of the next value in the current object.
+     * @return The name or null if the end of the object was reached.
+     * @throws IOException
+     */
+    private String readName() throws IOException {
+        int c = skipWhitespace();
+        if (c == '}') {
+            read();
+            return null;
+        }
+        
+        String name;
+        if (c == '"') {
+            read();
+            name = readQuoted();
+        } else {
+            builder.setLength(0);
+            while ((c = peek()) != ':') {
+                if (c == -1 || c == '\n' || c == '\r') throw error("Expected ':'");
+                builder.append((char) read());
+            }
+            name = unescape(trimEnd(builder));
+        }
+        expect(':');
+        return name;
+    }
+    
+    private JsonValue readValue() throws IOException {
+        int c = skipWhitespace();
+        switch (c) {
+            case '{': {
+                read();
+                var object = new JsonValue(ValueType.object);
+                JsonValue last = null;
+                String name;
+                while ((name = readName()) != null) {
+                    var child = readValue();
+                    child.name = name;
+                    last = addChild(object, last, child);
+                }
+                return object;
+            }
+            case '[': {
+                read();
+                var array = new JsonValue(ValueType.array);
+                JsonValue last = null;
+                while (skipWhitespace() != ']') {
+                    last = addChild(array, last, readValue());
+                }
+                read();
+                return array;
+            }
+            case '"':
+                read();
+                return new JsonValue(readQuoted());
+            case -1:
+                throw error("Unexpected end of file");
+            default:
+                return readUnquoted();
+        }
+    }
+    
+    /**
+     * Appends the child after the last child without walking the existing children like JsonValue.addChild() does.
+     * @param parent
+     * @param last The current last child of parent or null if it has none.
+     * @param child
+     * @return The child, which is the new last child.
+     */
+    private static JsonValue addChild(JsonValue parent, JsonValue last, JsonValue child) {
+        child.parent = parent;
+        if (last == null) {
+            parent.child = child;
+        } else {
+            last.next = child;
+            child.prev = last;
+        }
+        parent.size++;
+        return child;
+    }
+    
+    private String readQuoted() throws IOException {
+        builder.setLength(0);
+        int c;
+        while ((c = read()) != '"') {
+            if (c == -1) throw error("Unterminated string");
+            if (c == '\\') {
+                c = read();
+                switch (c) {
+                    case 'b': builder.append('\b'); break;
+                    case 'f': builder.append('\f'); break;
+                    case 'n': builder.append('\n'); break;
+                    case 'r': builder.append('\r'); break;
+                    case 't': builder.append('\t'); break;
+                    case 'u':
+                        int code = 0;
+                        for (int i = 0; i < 4; i++) {
+                            int digit = Character.digit(read(), 16);
+                            if (digit == -1) throw error("Invalid unicode escape");
+                            code = code * 16 + digit;
+                        }
+                        builder.append((char) code);
+                        break;
+                    case -1: throw error("Unterminated string");
+                    default: builder.append((char) c);
+                }
+            } else {
+                builder.append((char) c);
+            }
+        }
+        return builder.toString();
+    }
+    
+    /**
+     * Reads a value without quotes. Like JsonReader, true, false, null, and numbers are recognized and anything else is
+     * a string.
+     * @return
+     * @throws IOException
+     */
+    private JsonValue readUnquoted() throws IOException {
+        builder.setLength(0);
+        int c;
+        while ((c = peek()) != -1 && c != ',' && c != '}' && c != ']' && c != '\n' && c != '\r') {
+            builder.append((char) read());
+        }
+        var value = unescape(trimEnd(builder));
+        
+        switch (value) {
+            case "true": return new JsonValue(true);
+            case "false": return new JsonValue(false);
+            case "null": return new JsonValue((String) null);
+        }
+        
+        boolean couldBeDouble = false, couldBeLong = true;
+        outer:
+        for (int i = 0; i < value.length(); i++) {
+            switch (value.charAt(i)) {
+                case '0': case '1': case '2': case '3': case '4': case '5': case '6': case '7': case '8': case '9':
+                case '-': case '+':
+                    break;
+                case '.': case 'e': case 'E':
+                    couldBeDouble = true;
+                    couldBeLong = false;
+                    break;
+                default:
+                    couldBeDouble = false;
+                    couldBeLong = false;
+                    break outer;
+            }
+        }
+        try {
+            if (couldBeDouble) return new JsonValue(Double.parseDouble(value), value);
+            if (couldBeLong) return new JsonValue(Long.parseLong(value), value);
+        } catch (NumberFormatException ignored) {
+        }
+        return new JsonValue(value);
+    }
+    
+    private static String trimEnd(StringBuilder builder) {
+        int end = builder.length();
+        while (end > 0 && Character.isWhitespace(builder.charAt(end - 1))) end--;
+        return builder.substring(0, end);
+    }
+    
+    private static String unescape(String value) {
+        if (value.indexOf('\\') == -1) return value;
+        var unescaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                c = value.charAt(++i);
+                switch (c) {
+                    case 'b': c = '\b'; break;
+                    case 'f': c = '\f'; break;
+                    case 'n': c = '\n'; break;
+                    case 'r': c = '\r'; break;
+                    case 't': c = '\t'; break;
+                    case 'u':
+                        if (i + 4 < value.length()) {
+                            c = (char) Integer.parseInt(value.substring(i + 1, i + 5), 16);
+                            i += 4;
+                        }
+                        break;
+                }
+            }
+            unescaped.append(c);
+        }
+        return unescaped.toString();
+    }
+    
+    /**
+     * Skips whitespace, commas, and comments.
+     * @return The next significant character without consuming it, or -1 at the end of the file.
+     * @throws IOException
+     */
+    private int skipWhitespace() throws IOException {
+        while (true) {
+            int c = peek();
+            switch (c) {
+                case ' ': case '\t': case '\r': case '\n': case ',':
+                    read();
+                    break;
+                case '/':
+                    read();
+                    c = read();
+                    if (c == '/') {
+                        do {
+                            c = read();
+                        } while (c != -1 && c != '\n');
+                    } else if (c == '*') {
+                        int previous = 0;
+                        while ((c = read()) != -1 && !(previous == '*' && c == '/')) previous = c;
+                    } else {
+                        throw error("Unexpected '/'");
+                    }
+                    break;
+                default:
+                    return c;
+            }
+        }
+    }
+    
+    private void expect(char expected) throws IOException {
+        if (skipWhitespace() != expected) throw error("Expected '" + expected + "'");
+        read();
+    }
+    
+    private int peek() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position];
+    }
+    
+    private int read() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position++];
+    }
+    
+    private boolean fill() throws IOException {
+        charsRead += limit;
+        position = 0;
+        limit = Math.max(reader.read(buffer, 0, BUFFER_SIZE), 0);
+        if (listener != null) listener.progress(Math.min((float) charsRead / length, 1));
+        return limit > 0;
+    }
+    
+    private SerializationException error(String message) {
+        return new SerializationException("Error parsing project file at character " + (charsRead + position) + ": " + message);
+    }
+}
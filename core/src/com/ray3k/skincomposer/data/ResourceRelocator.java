@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2022 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.data;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.OrderedMap;
+import com.ray3k.skincomposer.utils.Utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Moves and copies project resources into a data folder. The project is pointed at the new paths as the requests are
+ * made, then run() carries out all of the requests at once. Copies are skipped if an identical file is already at the
+ * target. Copies are cloned with copy-on-write where the file system supports it. The remaining copies and moves run
+ * concurrently. Hard links are not used because the nine patch and ten patch editors rewrite images in place, which
+ * would change the linked file in the other project as well.
+ */
+public class ResourceRelocator {
+    private static final int CLONE_BATCH_SIZE = 256;
+    /**
+     * The requests keyed by the path of the target file, so that a file shared by several drawables is relocated once
+     * and files with the same name are never written concurrently.
+     */
+    private final OrderedMap<String, Relocation> relocations = new OrderedMap<>();
+    
+    private static class Relocation {
+        Path source;
+        Path target;
+        boolean move;
+    }
+    
+    /**
+     * Requests the file to be moved into the folder.
+     * @param file
+     * @param targetFolder
+     * @return The file in its new location.
+     */
+    public FileHandle move(FileHandle file, FileHandle targetFolder) {
+        return request(file, targetFolder, true);
+    }
+    
+    /**
+     * Requests the file to be copied into the folder.
+     * @param file
+     * @param targetFolder
+     * @return The copy of the file.
+     */
+    public FileHandle copy(FileHandle file, FileHandle targetFolder) {
+        return request(file, targetFolder, false);
+    }
+    
+    private FileHandle request(FileHandle file, FileHandle targetFolder, boolean move) {
+        var targetFile = targetFolder.child(file.name());
+        if (!relocations.containsKey(targetFile.path())) {
+            var relocation = new Relocation();
+            relocation.source = file.file().toPath();
+            relocation.target = targetFile.file().toPath();
+            relocation.move = move;
+            relocations.put(targetFile.path(), relocation);
+        }
+        return targetFile;
+    }
+    
+    /**
+     * @return True if there are moves or copies that have not been carried out yet.
+     */
+    public boolean hasRequests() {
+        return relocations.size > 0;
+    }
+    
+    /**
+     * Carries out the requested moves and copies. Blocks until all of them are complete.
+     */
+    public void run() {
+        if (relocations.size == 0) return;
+        
+        try {
+            var folders = new ObjectMap<Path, Array<Relocation>>();
+            for (var relocation : relocations.values()) {
+                var folder = relocation.target.getParent();
+                if (!folders.containsKey(folder)) {
+                    Files.createDirectories(folder);
+                    folders.put(folder, new Array<>());
+                }
+            }
+            
+            //moves are renames within a file system and identical copies are skipped, the rest is left to copy
+            var tasks = new Array<Callable<Relocation>>();
+            for (var relocation : relocations.values()) {
+                tasks.add(() -> {
+                    if (relocation.move) {
+                        Files.move(relocation.source, relocation.target, StandardCopyOption.REPLACE_EXISTING);
+                        return null;
+                    }
+                    return isIdentical(relocation.source, relocation.target) ? null : relocation;
+                });
+            }
+            
+            for (var relocation : runConcurrently(tasks)) {
+                if (relocation != null) folders.get(relocation.target.getParent()).add(relocation);
+            }
+            
+            var copyTasks = new Array<Callable<Relocation>>();
+            boolean cloneSupported = Utils.isLinux() || Utils.isMac();
+            for (var entry : folders) {
+                var pending = entry.value;
+                for (int i = 0; i < pending.size; i += CLONE_BATCH_SIZE) {
+                    int end = Math.min(pending.size, i + CLONE_BATCH_SIZE);
+                    if (cloneSupported && cloneFiles(pending, i, end, entry.key)) continue;
+                    cloneSupported = false;
+                    
+                    for (int j = i; j < end; j++) {
+                        var relocation = pending.get(j);
+                        copyTasks.add(() -> {
+                            Files.copy(relocation.source, relocation.target, StandardCopyOption.REPLACE_EXISTING);
+                            return relocation;
+                        });
+                    }
+                }
+            }
+            runConcurrently(copyTasks);
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Error relocating project resources", e);
+        } finally {
+            relocations.clear();
+        }
+    }
+    
+    private static boolean isIdentical(Path source, Path target) throws IOException {
+        if (!Files.exists(target) || Files.size(source) != Files.size(target)) return false;
+        return Utils.fileChecksum(new FileHandle(source.toFile())) == Utils.fileChecksum(new FileHandle(target.toFile()));
+    }
+    
+    /**
+     * Clones the files into the folder with a single cp process. A copy-on-write clone shares the data of its source
+     * until either file is modified, so it is created instantly regardless of the size of the file.
+     * @param relocations
+     * @param start
+     * @param end
+     * @param folder
+     * @return True if every file was cloned. False if the file system or the platform does not support cloning.
+     */
+    private static boolean cloneFiles(Array<Relocation> relocations, int start, int end, Path folder) {
+        var command = new Array<String>();
+        command.add("cp");
+        command.add(Utils.isMac() ? "-c" : "--reflink=always");
+        command.add("--");
+        for (int i = start; i < end; i++) {
+            command.add(relocations.get(i).source.toString());
+        }
+        command.add(folder.toString() + "/");
+        
+        try {
+            var process = new ProcessBuilder(command.toArray(String.class)).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+            return process.waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+    
+    private static <T> Array<T> runConcurrently(Array<Callable<T>> tasks) throws IOException {
+        var results = new Array<T>(tasks.size);
+        if (tasks.size == 0) return results;
+        
+        var executor = Executors.newFixedThreadPool(Math.min(tasks.size, Runtime.getRuntime().availableProcessors()));
+        try {
+            var futures = new Array<Future<T>>();
+            for (var task : tasks) {
+                futures.add(executor.submit(task));
+            }
+            
+            for (var future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+                    throw new GdxRuntimeException(e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new GdxRuntimeException(e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+}
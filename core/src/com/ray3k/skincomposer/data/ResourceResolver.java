@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2022 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.data;
+
+import com.badlogic.gdx.Files.FileType;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.ObjectSet;
+import com.ray3k.skincomposer.utils.Utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checks whether project resources exist. Files are grouped by their parent folder and every folder is listed once
+ * instead of checking each file on its own, which matters on network drives where every check is a round trip.
+ * Folders are listed concurrently and the listings are cached until clear() is called, so all of the checks made
+ * while a project is loaded read each folder at most once.
+ */
+public class ResourceResolver {
+    /**
+     * The names in every folder that has been listed, keyed by the path of the folder. Folders that do not exist or
+     * can't be read are stored as null.
+     */
+    private final ObjectMap<String, ObjectSet<String>> listings = new ObjectMap<>();
+    
+    /**
+     * Lists the folders of the files that have not been listed yet. The folders are read concurrently.
+     * @param files
+     */
+    public synchronized void prefetch(Array<FileHandle> files) {
+        var folders = new ObjectSet<String>();
+        for (var file : files) {
+            if (file == null || !isListable(file)) continue;
+            var folder = folderPath(file);
+            if (!listings.containsKey(folder)) folders.add(folder);
+        }
+        if (folders.size == 0) return;
+        
+        var executor = Executors.newFixedThreadPool(Math.min(folders.size, Runtime.getRuntime().availableProcessors()));
+        try {
+            var futures = new ObjectMap<String, Future<ObjectSet<String>>>();
+            for (var folder : folders) {
+                futures.put(folder, executor.submit(() -> list(folder)));
+            }
+            
+            for (var entry : futures) {
+                try {
+                    listings.put(entry.key, entry.value.get());
+                } catch (ExecutionException e) {
+                    listings.put(entry.key, null);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    /**
+     * Checks if the file exists, listing its folder if it has not been listed yet.
+     * @param file
+     * @return
+     */
+    public synchronized boolean exists(FileHandle file) {
+        if (!isListable(file)) return file.exists();
+        
+        var folder = folderPath(file);
+        if (!listings.containsKey(folder)) listings.put(folder, list(folder));
+        var names = listings.get(folder);
+        if (names == null) return false;
+        if (names.contains(file.name())) return true;
+        
+        //listed names are compared exactly, so misses are confirmed on file systems that ignore case
+        return (Utils.isWindows() || Utils.isMac()) && file.exists();
+    }
+    
+    /**
+     * Forgets the listings so that changes to the folders are seen by the next checks.
+     */
+    public synchronized void clear() {
+        listings.clear();
+    }
+    
+    /**
+     * Internal and classpath files may be packaged in the jar, so only files on disk are listed.
+     * @param file
+     * @return
+     */
+    private static boolean isListable(FileHandle file) {
+        return file.type() == FileType.Absolute || file.type() == FileType.External || file.type() == FileType.Local;
+    }
+    
+    private static String folderPath(FileHandle file) {
+        var parent = file.file().getAbsoluteFile().getParentFile();
+        return parent == null ? "" : parent.getPath();
+    }
+    
+    private static ObjectSet<String> list(String folder) {
+        if (folder.isEmpty()) return null;
+        
+        try (var stream = Files.newDirectoryStream(Paths.get(folder))) {
+            var names = new ObjectSet<String>();
+            for (var path : stream) {
+                names.add(path.getFileName().toString());
+            }
+            return names;
+        } catch (IOException | InvalidPathException e) {
+            return null;
+        }
+    }
+}
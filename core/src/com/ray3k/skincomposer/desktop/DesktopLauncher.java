@@ -38,6 +38,7 @@ import com.badlogic.gdx.tools.bmfont.BitmapFontWriter;
 import com.badlogic.gdx.tools.texturepacker.TexturePacker;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.ObjectMap;
 import com.ray3k.skincomposer.*;
 import com.ray3k.skincomposer.utils.Utils;
 import org.lwjgl.PointerBuffer;
@@ -45,15 +46,21 @@ import org.lwjgl.system.MemoryStack;
 import org.lwjgl.util.nfd.NFDPathSet;
 import org.lwjgl.util.nfd.NativeFileDialog;
 
+import javax.imageio.ImageIO;
 import javax.swing.*;
 import javax.swing.filechooser.FileFilter;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
+import java.awt.image.BufferedImage;
 import java.io.*;
 import java.lang.management.ManagementFactory;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static com.ray3k.skincomposer.Main.desktopWorker;
 import static org.lwjgl.system.MemoryStack.stackPush;
@@ -84,15 +91,15 @@ public class DesktopLauncher implements DesktopWorker, Lwjgl3WindowListener {
         var json = new Json();
         var settings = json.fromJson(TexturePacker.Settings.class, settingsFile);
         
-        var p = new TexturePacker(settings);
+        var files = new Array<FileHandle>();
         for (var handle : handles) {
             if (handle.exists()) {
-                p.addImage(handle.file());
+                files.add(handle);
             } else {
                 if (localFile != null) {
                     var localHandle = localFile.sibling(localFile.nameWithoutExtension() + "_data/" + handle.name());
                     if (localHandle.exists()) {
-                        p.addImage(localHandle.file());
+                        files.add(localHandle);
                     } else {
                         Gdx.app.error(getClass().getName(), "File does not exist error while creating texture atlas: " + handle.path());
                     }
@@ -101,11 +108,74 @@ public class DesktopLauncher implements DesktopWorker, Lwjgl3WindowListener {
                 }
             }
         }
+        
+        var images = decodeImages(files);
+        var p = new TexturePacker(settings);
+        for (int i = 0; i < files.size; i++) {
+            //same name TexturePacker derives from a file: ".9" is kept, the extension is dropped
+            p.addImage(images[i], files.get(i).nameWithoutExtension());
+        }
         p.pack(targetFile.parent().file(), targetFile.nameWithoutExtension());
     }
+    
+    /**
+     * Decodes the images on a worker pool sized to the available cores and converts them to the ABGR layout
+     * TexturePacker works in, so the packer itself only has to trim, hash, and place them.
+     * @param files
+     * @return the decoded images in the same order as files
+     */
+    private static BufferedImage[] decodeImages(Array<FileHandle> files) {
+        var images = new BufferedImage[files.size];
+        int threads = Math.min(Runtime.getRuntime().availableProcessors(), files.size);
+        if (threads <= 1) {
+            for (int i = 0; i < files.size; i++) {
+                images[i] = decodeImage(files.get(i));
+            }
+            return images;
+        }
+        
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            var futures = new ArrayList<Future<BufferedImage>>(files.size);
+            for (var file : files) {
+                futures.add(executor.submit(() -> decodeImage(file)));
+            }
+            
+            for (int i = 0; i < futures.size(); i++) {
+                images[i] = futures.get(i).get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while reading images for texture atlas", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return images;
+    }
+    
+    private static BufferedImage decodeImage(FileHandle file) {
+        BufferedImage image;
+        try {
+            image = ImageIO.read(file.file());
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading image: " + file.path(), e);
+        }
+        if (image == null) throw new RuntimeException("Unable to read image: " + file.path());
+        
+        if (image.getType() != BufferedImage.TYPE_4BYTE_ABGR) {
+            var converted = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_4BYTE_ABGR);
+            var graphics = converted.createGraphics();
+            graphics.drawImage(image, 0, 0, null);
+            graphics.dispose();
+            image = converted;
+        }
+        return image;
+    }
 
     @Override
-    public void packFontImages(Array<FileHandle> files, FileHandle saveFile) {
+    public void packFontImages(ObjectMap<String, Pixmap> images, FileHandle saveFile) {
         var settings = new TexturePacker.Settings();
         settings.pot = false;
         settings.duplicatePadding = true;
@@ -120,15 +190,33 @@ public class DesktopLauncher implements DesktopWorker, Lwjgl3WindowListener {
         settings.silent = true;
         var texturePacker = new TexturePacker(settings);
 
-        for (FileHandle file : files) {
-            if (file.exists()) {
-                texturePacker.addImage(file.file());
-            }
+        for (var entry : images) {
+            texturePacker.addImage(toBufferedImage(entry.value), entry.key);
         }
 
         texturePacker.pack(saveFile.parent().file(), saveFile.nameWithoutExtension());
     }
     
+    /**
+     * Copies an RGBA8888 pixmap into a BufferedImage that TexturePacker can pack without a file.
+     * @param pixmap
+     * @return
+     */
+    private static BufferedImage toBufferedImage(Pixmap pixmap) {
+        int width = pixmap.getWidth();
+        int height = pixmap.getHeight();
+        var pixels = pixmap.getPixels().duplicate().order(ByteOrder.BIG_ENDIAN);
+        var argb = new int[width * height];
+        for (int i = 0; i < argb.length; i++) {
+            int rgba = pixels.getInt(i * 4);
+            argb[i] = rgba >>> 8 | rgba << 24;
+        }
+        
+        var image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, width, height, argb, 0, width);
+        return image;
+    }
+    
     @Override
     public void centerWindow(Graphics graphics) {
         var g = (Lwjgl3Graphics) graphics;
@@ -396,61 +484,94 @@ public class DesktopLauncher implements DesktopWorker, Lwjgl3WindowListener {
         info.face = target.nameWithoutExtension();
         info.padding = new BitmapFontWriter.Padding(1, 1, 1, 1);
 
-        var pixmapNames = BitmapFontWriter.writePixmaps(pages, target.parent(), target.nameWithoutExtension());
+        var pixmapNames = new String[pages.size];
         int scaleW;
         int scaleH;
         
-        if (pixmapNames.length > 1) {
+        if (pages.size > 1) {
             //all the images must have the same width and height
-            var pngTarget = target.sibling(pixmapNames[0]);
-            var pixmap = new Pixmap(pngTarget);
-            scaleW = pixmap.getWidth();
-            scaleH = pixmap.getHeight();
-        } else {
-            var pngTarget = target.sibling(pixmapNames[0]);
-
-            //trim whitespace on the image.
-            var pixmap = new Pixmap(pngTarget);
-            var color = new Color();
-            scaleH = pixmap.getHeight();
-            boolean foundOpaquePixel = false;
-            for (int y = pixmap.getHeight() - 1; y >= 0 && !foundOpaquePixel; y--) {
-                for (int x = 0; x < pixmap.getWidth(); x++) {
-                    color.set(pixmap.getPixel(x, y));
-                    if (color.a > 0) {
-                        //add padding to new height
-                        scaleH = y + 2;
-                        foundOpaquePixel = true;
-                        break;
-                    }
-                }
-            }
-
-            foundOpaquePixel = false;
-            scaleW = pixmap.getWidth();
-            for (int x = pixmap.getWidth() - 1; x >= 0 && !foundOpaquePixel; x--) {
-                for (int y = 0; y < pixmap.getHeight(); y++) {
-                    color.set(pixmap.getPixel(x, y));
-                    if (color.a > 0) {
-                        //add padding to new height
-                        scaleW = x + 2;
-                        foundOpaquePixel = true;
-                        break;
-                    }
-                }
+            scaleW = pages.first().getPixmap().getWidth();
+            scaleH = pages.first().getPixmap().getHeight();
+            
+            var pixmaps = new Array<Pixmap>(pages.size);
+            for (int i = 0; i < pages.size; i++) {
+                pixmapNames[i] = target.nameWithoutExtension() + "_" + i + ".png";
+                pixmaps.add(pages.get(i).getPixmap());
             }
+            writePNGs(pixmaps, target, pixmapNames);
+        } else {
+            pixmapNames[0] = target.nameWithoutExtension() + ".png";
+            var pixmap = pages.first().getPixmap();
+            
+            //trim whitespace on the image before it is written.
+            int[] bounds = opaqueBounds(pixmap);
+            scaleW = bounds[0] == -1 ? pixmap.getWidth() : bounds[0] + 2;
+            scaleH = bounds[1] == -1 ? pixmap.getHeight() : bounds[1] + 2;
     
             var fixedPixmap = new Pixmap(scaleW, scaleH, Pixmap.Format.RGBA8888);
             fixedPixmap.setBlending(Pixmap.Blending.None);
             fixedPixmap.drawPixmap(pixmap, 0, 0);
-            PixmapIO.writePNG(pngTarget, fixedPixmap);
-            pixmap.dispose();
+            PixmapIO.writePNG(target.sibling(pixmapNames[0]), fixedPixmap);
             fixedPixmap.dispose();
         }
         
         BitmapFontWriter.writeFont(data, pixmapNames, target, info, scaleW, scaleH);
     }
 
+    /**
+     * Finds the rightmost column and the lowest row that contain an opaque pixel with a single scan of the alpha
+     * channel.
+     * @param pixmap
+     * @return The x and y of the bounds, or -1 if the pixmap is fully transparent.
+     */
+    private static int[] opaqueBounds(Pixmap pixmap) {
+        var rgba = Utils.toRGBA8888(pixmap);
+        int width = rgba.getWidth();
+        int height = rgba.getHeight();
+        var pixels = rgba.getPixels();
+        int maxX = -1;
+        int maxY = -1;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0, i = y * width * 4 + 3; x < width; x++, i += 4) {
+                if (pixels.get(i) != 0) {
+                    if (x > maxX) maxX = x;
+                    maxY = y;
+                }
+            }
+        }
+        if (rgba != pixmap) rgba.dispose();
+        return new int[] {maxX, maxY};
+    }
+    
+    /**
+     * Encodes the pixmaps as PNGs next to the target file in parallel.
+     * @param pixmaps
+     * @param target
+     * @param names The file names of the pixmaps in the same order.
+     */
+    private static void writePNGs(Array<Pixmap> pixmaps, FileHandle target, String[] names) {
+        var executor = Executors.newFixedThreadPool(Math.min(Runtime.getRuntime().availableProcessors(), pixmaps.size));
+        try {
+            var futures = new ArrayList<Future<?>>(pixmaps.size);
+            for (int i = 0; i < pixmaps.size; i++) {
+                var pixmap = pixmaps.get(i);
+                var file = target.sibling(names[i]);
+                futures.add(executor.submit(() -> PixmapIO.writePNG(file, pixmap)));
+            }
+            
+            for (var future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while writing font pages", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Override
     public void created(Lwjgl3Window lw) {
         
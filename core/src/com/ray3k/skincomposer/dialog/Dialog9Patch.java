@@ -39,7 +39,6 @@ import com.badlogic.gdx.scenes.scene2d.ui.*;
 import com.badlogic.gdx.scenes.scene2d.utils.*;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.ObjectMap;
 import com.badlogic.gdx.utils.Scaling;
 import com.ray3k.skincomposer.FilesDroppedListener;
 import com.ray3k.skincomposer.Main;
@@ -77,13 +76,11 @@ public class Dialog9Patch extends Dialog {
     private Array<Dialog9PatchListener> listeners;
     private FilesDroppedListener filesDroppedListener;
     private Color previewBGcolor;
-    private ObjectMap<DrawableData, Drawable> drawablePairs;
 
-    public Dialog9Patch(ObjectMap<DrawableData, Drawable> drawablePairs) {
+    public Dialog9Patch() {
         super("", skin, "dialog");
         previewBGcolor = new Color(Color.WHITE);
         listeners = new Array<>();
-        this.drawablePairs = drawablePairs;
         
         horizontalResizeListener = new ResizeFourArrowListener(SystemCursor.HorizontalResize);
         
@@ -778,7 +775,7 @@ public class Dialog9Patch extends Dialog {
                           var dialog = dialogFactory.showDialogDrawables(true, new DialogDrawables.DialogDrawablesListener() {
                             @Override
                             public void confirmed(DrawableData drawable, DialogDrawables dialog) {
-                                var image = new Image(drawablePairs.get(drawable));
+                                var image = new Image(atlasData.getDrawablePair(drawable));
                                 image.setScaling(Scaling.none);
                                 image.setUserObject("Drawable");
 
@@ -968,6 +968,53 @@ public class DialogBitmapFont extends Dialog {
             }
         });
 
+        bottom.row();
+        label = new Label("Distance Field:", skin);
+        bottom.add(label).right();
+
+        button = new Button(skin, "switch");
+        button.setName("distanceField");
+        button.setChecked(data.distanceField);
+        bottom.add(button).left();
+
+        toolTip = (Main.makeTooltip("Generate a signed distance field instead of regular glyphs. A single font can then be scaled to any size. Load it in TextraTypist with DistanceFieldType.SDF and use Linear filters.", tooltipManager, getSkin()));
+        button.addListener(toolTip);
+
+        button.addListener(handListener);
+        button.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                Button button = (Button) actor;
+
+                data.distanceField = button.isChecked();
+                updatePreviewAndOK();
+            }
+        });
+
+        label = new Label("Spread:", skin);
+        bottom.add(label).right();
+
+        spinner = new Spinner(data.distanceFieldSpread, 1.0, true, Spinner.Orientation.HORIZONTAL, skin);
+        spinner.setName("distanceFieldSpread");
+        spinner.setMinimum(1);
+        bottom.add(spinner).left().minWidth(100.0f);
+
+        toolTip = (Main.makeTooltip("The distance in pixels that the distance field extends from the edge of each glyph.", tooltipManager, getSkin()));
+        spinner.addListener(toolTip);
+
+        spinner.getButtonMinus().addListener(handListener);
+        spinner.getButtonPlus().addListener(handListener);
+        spinner.getTextField().addListener(ibeamListener);
+        spinner.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeListener.ChangeEvent event, Actor actor) {
+                Spinner spinner = (Spinner) actor;
+
+                data.distanceFieldSpread = (int) spinner.getValue();
+                updatePreviewAndOK();
+            }
+        });
+
         buttons.pad(10.0f);
         buttons.defaults().minWidth(75.0f).space(25.0f);
         textButton = new TextButton("Generate Font", skin);
@@ -1194,6 +1241,8 @@ public class DialogBitmapFont extends Dialog {
         fontSettings.genMipMaps = ((Button) findActor("genMipMaps")).isChecked();
         fontSettings.minFilter = ((SelectBox<String>) findActor("minFilter")).getSelected();
         fontSettings.magFilter = ((SelectBox<String>) findActor("magFilter")).getSelected();
+        fontSettings.distanceField = ((Button) findActor("distanceField")).isChecked();
+        fontSettings.distanceFieldSpread = ((Spinner) findActor("distanceFieldSpread")).getValueAsInt();
 
         fileHandle.writeString(json.prettyPrint(fontSettings), false, "utf-8");
     }
@@ -1225,6 +1274,8 @@ public class DialogBitmapFont extends Dialog {
         boolean genMipMaps;
         String minFilter;
         String magFilter;
+        boolean distanceField;
+        int distanceFieldSpread = 4;
     }
 
     private void loadSettings() {
@@ -1343,6 +1394,12 @@ public class DialogBitmapFont extends Dialog {
         
         ((SelectBox<String>) findActor("magFilter")).setSelected(fontSettings.magFilter);
         data.magFilter = fontSettings.magFilter;
+        
+        ((Button) findActor("distanceField")).setChecked(fontSettings.distanceField);
+        data.distanceField = fontSettings.distanceField;
+        
+        ((Spinner) findActor("distanceFieldSpread")).setValue(fontSettings.distanceFieldSpread);
+        data.distanceFieldSpread = fontSettings.distanceFieldSpread;
 
         updateColors();
         updatePreviewAndOK();
@@ -370,7 +370,6 @@ public class DialogColors extends Dialog {
                     @Override
                     public void changed(ChangeListener.ChangeEvent event, Actor actor) {
                         colors.removeValue(deleteColor, true);
-                        projectData.setChangesSaved(false);
                         
                         //clear style properties that use this color.
                         for (Array<StyleData> datas : jsonData.getClassStyleMap().values()) {
@@ -401,6 +400,7 @@ public class DialogColors extends Dialog {
                             }
                         }
                         
+                        projectData.recordChange("Delete Color \"" + deleteColor.getName() + "\"", deleteColor, projectData.getAtlasData().getDrawables(), jsonData.getClassStyleMap());
                         undoableManager.clearUndoables();
                         
                         rootTable.refreshStyleProperties(true);
@@ -462,7 +462,7 @@ public class DialogColors extends Dialog {
         atlasData.produceAtlas();
         rootTable.refreshPreview();
         
-        projectData.setChangesSaved(false);
+        projectData.recordChange("Recolor Color \"" + colorData.getName() + "\"", colorData);
         
         refreshTable();
     }
@@ -582,6 +582,7 @@ public class DialogColors extends Dialog {
         
         try {
             color.setName(newName);
+            jsonData.getColors().invalidateIndex();
         } catch (ColorData.NameFormatException ex) {
             Gdx.app.error(getClass().getName(), "Error trying to rename a color.", ex);
             dialogFactory.showDialogError("Name Error...","Error while naming a color.\\nPlease ensure name is formatted appropriately:\\nNo spaces, don't start with a number, - and _ acceptable.\n\nOpen log?");
@@ -592,7 +593,7 @@ public class DialogColors extends Dialog {
         rootTable.refreshStyleProperties(true);
         rootTable.refreshPreview();
         
-        projectData.setChangesSaved(false);
+        projectData.recordChange("Rename Color \"" + color.getName() + "\"", color, atlasData.getDrawables(), jsonData.getClassStyleMap());
         
         refreshTable();
     }
@@ -600,8 +601,9 @@ public class DialogColors extends Dialog {
     private boolean newColor(String name, Color color) {
         if (ColorData.validate(name)) {
             try {
-                projectData.setChangesSaved(false);
-                colors.add(new ColorData(name, color));
+                var colorData = new ColorData(name, color);
+                colors.add(colorData);
+                projectData.recordChange("New Color \"" + name + "\"", colorData);
                 sortBySelectedMode();
                 refreshTable();
                 return true;
@@ -641,8 +643,8 @@ public class DialogColors extends Dialog {
                     }
 
                     if (!hasColor) {
-                        projectData.setChangesSaved(false);
                         styleProperty.value = null;
+                        projectData.recordChange("Clear Missing Color", styleProperty);
                         rootTable.refreshStyleProperties(true);
                     }
                 }
@@ -672,8 +674,8 @@ public class DialogColors extends Dialog {
                     }
 
                     if (!hasColor) {
-                        projectData.setChangesSaved(false);
                         customProperty.setValue(null);
+                        projectData.recordChange("Clear Missing Color", customProperty);
                         rootTable.refreshStyleProperties(true);
                     }
                 }
@@ -408,8 +408,7 @@ public class DialogDrawables extends Dialog {
                     public void changed(ChangeListener.ChangeEvent event, Actor actor) {
                         Gdx.graphics.setSystemCursor(Cursor.SystemCursor.Arrow);
                         desktopWorker.removeFilesDroppedListener(filesDroppedListener);
-                        dialogFactory.showDialog9Patch(atlasData.getDrawablePairs(),
-                                new Dialog9Patch.Dialog9PatchListener() {
+                        dialogFactory.showDialog9Patch(new Dialog9Patch.Dialog9PatchListener() {
                                     @Override
                                     public void fileSaved(FileHandle fileHandle) {
                                         if (fileHandle.exists()) {
@@ -502,7 +501,7 @@ public class DialogDrawables extends Dialog {
             bg.setBackground(getSkin().getDrawable("white"));
             bg.setColor(drawable.bgColor);
             
-            Image image = new Image(atlasData.getDrawablePairs().get(drawable));
+            Image image = new Image(atlasData.getDrawablePair(drawable));
             if (MathUtils.isEqual(zoomSlider.getValue(), 1)) {
                 image.setScaling(Scaling.fit);
                 bg.fill(false);
@@ -615,7 +614,7 @@ public class DialogDrawables extends Dialog {
             bg.setBackground(getSkin().getDrawable("white"));
             bg.setColor(drawable.bgColor);
         
-            image = new Image(atlasData.getDrawablePairs().get(drawable));
+            image = new Image(atlasData.getDrawablePair(drawable));
             if (MathUtils.isEqual(zoomSlider.getValue(), 1)) {
                 image.setScaling(Scaling.fit);
                 bg.fill(false);
@@ -733,7 +732,7 @@ public class DialogDrawables extends Dialog {
                                 @Override
                                 public void selected(DrawableData drawableData) {
                                     projectData.getAtlasData().getDrawables().add(drawableData);
-                                    projectData.setChangesSaved(false);
+                                    projectData.recordChange("New Ten Patch \"" + drawableData.name + "\"", drawableData);
                                     gatherDrawables();
                                     atlasData.produceAtlas();
                                     sortBySelectedMode();
@@ -942,7 +941,7 @@ public class DialogDrawables extends Dialog {
                                 @Override
                                 public void selected(DrawableData drawableData) {
                                     drawable.set(drawableData);
-                                    projectData.setChangesSaved(false);
+                                    projectData.recordChange("Edit Ten Patch \"" + drawable.name + "\"", drawable);
                                     gatherDrawables();
                                     atlasData.produceAtlas();
                                     sortBySelectedMode();
@@ -1010,7 +1009,7 @@ public class DialogDrawables extends Dialog {
                                 @Override
                                 public void selected(DrawableData drawableData) {
                                     drawable.set(drawableData);
-                                    projectData.setChangesSaved(false);
+                                    projectData.recordChange("Edit TinyVG \"" + drawable.name + "\"", drawable);
                                     gatherDrawables();
                                     atlasData.produceAtlas();
                                     sortBySelectedMode();
@@ -1076,7 +1075,7 @@ public class DialogDrawables extends Dialog {
                     @Override
                     public void changed(ChangeListener.ChangeEvent event, Actor actor) {
                         drawable.hidden = ((ImageTextButton) actor).isChecked();
-                        projectData.setChangesSaved(false);
+                        projectData.recordChange("Toggle Visibility of \"" + drawable.name + "\"", drawable);
     
                         gatherDrawables();
                         sortBySelectedMode();
@@ -1145,7 +1144,7 @@ public class DialogDrawables extends Dialog {
                         if (object instanceof Boolean && (boolean) object) {
                             tintedDrawable.name = textField.getText();
                             atlasData.getDrawables().add(tintedDrawable);
-                            projectData.setChangesSaved(false);
+                            projectData.recordChange("New Tinted Drawable \"" + tintedDrawable.name + "\"", tintedDrawable);
                         }
                     }
 
@@ -1165,7 +1164,7 @@ public class DialogDrawables extends Dialog {
                             if (!button.isDisabled()) {
                                 tintedDrawable.name = textField.getText();
                                 atlasData.getDrawables().add(tintedDrawable);
-                                projectData.setChangesSaved(false);
+                                projectData.recordChange("New Tinted Drawable \"" + tintedDrawable.name + "\"", tintedDrawable);
                                 approveDialog.hide();
                             }
                         }
@@ -1179,7 +1178,7 @@ public class DialogDrawables extends Dialog {
 
                 approveDialog.text("What is the name of the new tinted drawable?");
 
-                Drawable drawable = atlasData.getDrawablePairs().get(drawableData);
+                Drawable drawable = atlasData.getDrawablePair(drawableData);
                 Drawable preview = null;
                 if (drawable instanceof SpriteDrawable) {
                     preview = ((SpriteDrawable) drawable).tint(colorData.color);
@@ -1314,6 +1313,7 @@ public class DialogDrawables extends Dialog {
     private void applyTintedDrawableSettings(DrawableData drawable, String name) {
         String oldName = drawable.name;
         drawable.name = name;
+        atlasData.getDrawables().invalidateIndex();
 
         undoableManager.clearUndoables();
         updateStyleValuesForRename(oldName, name);
@@ -1322,7 +1322,7 @@ public class DialogDrawables extends Dialog {
         atlasData.produceAtlas();
         rootTable.refreshPreview();
         
-        projectData.setChangesSaved(false);
+        projectData.recordChange("Rename Drawable \"" + name + "\"", drawable, jsonData.getClassStyleMap());
         
         sortBySelectedMode();
     }
@@ -1526,6 +1526,7 @@ public class DialogDrawables extends Dialog {
     
     private void tiledDrawableSettings(DrawableData drawable, ColorData colorData, float minWidth, float minHeight, String name) {
         drawable.name = name;
+        atlasData.getDrawables().invalidateIndex();
         drawable.tintName = colorData.getName();
         drawable.minWidth = minWidth;
         drawable.minHeight = minHeight;
@@ -1542,7 +1543,7 @@ public class DialogDrawables extends Dialog {
         if (!atlasData.getDrawables().contains(drawable, false)) {
             atlasData.getDrawables().add(drawable);
         }
-        projectData.setChangesSaved(false);
+        projectData.recordChange("Tiled Drawable \"" + drawable.name + "\"", drawable);
         gatherDrawables();
         atlasData.produceAtlas();
         sortBySelectedMode();
@@ -1586,7 +1587,7 @@ public class DialogDrawables extends Dialog {
 
             undoableManager.clearUndoables();
             
-            projectData.setChangesSaved(false);
+            projectData.recordChange("Delete Drawable \"" + drawable.name + "\"", drawable, jsonData.getClassStyleMap());
 
             gatherDrawables();
             sortBySelectedMode();
@@ -1604,9 +1605,9 @@ public class DialogDrawables extends Dialog {
             @Override
             protected void result(Object object) {
                 if ((boolean) object) {
-                    projectData.setChangesSaved(false);
                     removeDuplicateDrawables(drawable.file);
                     removeRegionFromTenPatches(drawable);
+                    projectData.recordChange("Delete Drawable \"" + drawable.name + "\"", drawable, jsonData.getClassStyleMap());
                     gatherDrawables();
                     sortBySelectedMode();
                 }
@@ -2004,7 +2005,7 @@ public class DialogDrawables extends Dialog {
                             projectData.makeResourcesRelative();
                         }
                         
-                        projectData.setChangesSaved(false);
+                        projectData.recordChange("New Custom Drawable", atlasData.getDrawables());
                     }
                     
                     sortBySelectedMode();
@@ -2025,6 +2026,7 @@ public class DialogDrawables extends Dialog {
             undoableManager.clearUndoables();
             updateStyleValuesForRename(drawable.name, name);
             drawable.name = name;
+            atlasData.getDrawables().invalidateIndex();
             drawable.tintName = colorData.getName();
             drawable.minWidth = minWidth;
             drawable.minHeight = minHeight;
@@ -2038,7 +2040,7 @@ public class DialogDrawables extends Dialog {
             atlasData.produceAtlas();
             rootTable.refreshPreview();
     
-            projectData.setChangesSaved(false);
+            projectData.recordChange("Pixel Drawable \"" + name + "\"", drawable, jsonData.getClassStyleMap());
     
             sortBySelectedMode();
         });
@@ -2081,7 +2083,7 @@ public class DialogDrawables extends Dialog {
                             projectData.makeResourcesRelative();
                         }
                         
-                        projectData.setChangesSaved(false);
+                        projectData.recordChange("New Pixel Drawable", atlasData.getDrawables());
                     }
                     
                     sortBySelectedMode();
@@ -2229,7 +2231,7 @@ public class DialogDrawables extends Dialog {
                         projectData.makeResourcesRelative();
                     }
 
-                    projectData.setChangesSaved(false);
+                    projectData.recordChange("Add Drawables", atlasData.getDrawables());
                 }
 
                 sortBySelectedMode();
@@ -2280,7 +2282,7 @@ public class DialogDrawables extends Dialog {
                         if (object instanceof Boolean && (boolean) object) {
                             tintedDrawable.name = textField.getText();
                             atlasData.getDrawables().add(tintedDrawable);
-                            projectData.setChangesSaved(false);
+                            projectData.recordChange("New Tinted Drawable \"" + tintedDrawable.name + "\"", tintedDrawable);
                         }
                     }
         
@@ -2301,7 +2303,7 @@ public class DialogDrawables extends Dialog {
                             if (!button.isDisabled()) {
                                 tintedDrawable.name = textField.getText();
                                 atlasData.getDrawables().add(tintedDrawable);
-                                projectData.setChangesSaved(false);
+                                projectData.recordChange("New Tinted Drawable \"" + tintedDrawable.name + "\"", tintedDrawable);
                                 dialog.hide();
                             }
                         }
@@ -2311,7 +2313,7 @@ public class DialogDrawables extends Dialog {
                 dialog.text("What is the name of the new tinted drawable?");
                 dialog.getContentTable().getCells().first().pad(10.0f);
     
-                Drawable drawable = atlasData.getDrawablePairs().get(drawableData);
+                Drawable drawable = atlasData.getDrawablePair(drawableData);
                 Drawable preview = null;
                 if (drawable instanceof SpriteDrawable) {
                     preview = ((SpriteDrawable) drawable).tint(color);
@@ -2445,9 +2447,9 @@ public class DialogDrawables extends Dialog {
                         }
 
                         if (!hasDrawable) {
-                            projectData.setChangesSaved(false);
                             undoableManager.clearUndoables();
                             property.value = null;
+                            projectData.recordChange("Clear Missing Drawable", property);
                             rootTable.refreshStyleProperties(true);
                         }
                         
@@ -2474,9 +2476,9 @@ public class DialogDrawables extends Dialog {
                         }
 
                         if (!hasDrawable) {
-                            projectData.setChangesSaved(false);
                             undoableManager.clearUndoables();
                             customProperty.setValue(null);
+                            projectData.recordChange("Clear Missing Drawable", customProperty);
                             rootTable.refreshStyleProperties(true);
                         }
                         
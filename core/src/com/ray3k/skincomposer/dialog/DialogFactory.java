@@ -35,10 +35,8 @@ import com.badlogic.gdx.scenes.scene2d.actions.Actions;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
 import com.badlogic.gdx.scenes.scene2d.ui.ImageButton.ImageButtonStyle;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
-import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.ObjectMap;
 import com.ray3k.skincomposer.Main;
 import com.ray3k.skincomposer.UndoableManager;
 import com.ray3k.skincomposer.UndoableManager.DeleteStyleUndoable;
@@ -74,6 +72,7 @@ import static com.ray3k.skincomposer.Main.*;
 public class DialogFactory {
     private static DialogFactory instance;
     private boolean showingCloseDialog;
+    private volatile DialogLoading loadingDialog;
 
     public DialogFactory() {
         instance = this;
@@ -822,9 +821,19 @@ public class DialogFactory {
 
     public void showDialogLoading(Runnable runnable) {
         DialogLoading dialog = new DialogLoading("", runnable, main);
+        loadingDialog = dialog;
         dialog.show(stage);
     }
     
+    /**
+     * Displays the progress in the most recently shown loading dialog. Can be called from any thread.
+     * @param progress The completed fraction from 0 to 1.
+     */
+    public void showLoadingProgress(float progress) {
+        var dialog = loadingDialog;
+        if (dialog != null) dialog.setProgress(progress);
+    }
+    
     public void showSceneComposerDialog() {
         DialogSceneComposer dialog = new DialogSceneComposer();
         dialog.show(stage);
@@ -1190,8 +1199,8 @@ public class DialogFactory {
         dialog.show(stage);
     }
     
-    public void showDialog9Patch(ObjectMap<DrawableData, Drawable> drawablePairs, Dialog9PatchListener listener) {
-        Dialog9Patch dialog = new Dialog9Patch(drawablePairs);
+    public void showDialog9Patch(Dialog9PatchListener listener) {
+        Dialog9Patch dialog = new Dialog9Patch();
         dialog.addDialog9PatchListener(listener);
         dialog.setFillParent(true);
         dialog.show(stage);
@@ -275,7 +275,6 @@ public class DialogFonts extends Dialog {
     private boolean addFont(String name, int scaling, boolean markupEnabled, boolean flip, FileHandle file) {
         if (FontData.validate(name)) {
             try {
-                projectData.setChangesSaved(false);
                 FontData font = new FontData(name, scaling, markupEnabled, flip, file);
                 
                 //remove any existing FontData that shares the same name.
@@ -324,6 +323,7 @@ public class DialogFonts extends Dialog {
                 }
                 produceAtlas();
                 fonts.add(font);
+                projectData.recordChange("New Font \"" + name + "\"", font, drawables, jsonData.getClassStyleMap());
                 
                 Array<TextureRegion> regions = new Array<>();
                 for (String path : bitmapFontData.imagePaths) {
@@ -434,7 +434,6 @@ public class DialogFonts extends Dialog {
                     @Override
                     public void changed(ChangeListener.ChangeEvent event, Actor actor) {
                         fonts.removeValue(deleteFont, true);
-                        projectData.setChangesSaved(false);
                         BitmapFontData bitmapFontData = new BitmapFontData(deleteFont.file, false);
                         for (String path : bitmapFontData.imagePaths) {
                             FileHandle imagefile = new FileHandle(path);
@@ -451,6 +450,7 @@ public class DialogFonts extends Dialog {
                             }
                         }
                         
+                        projectData.recordChange("Delete Font \"" + deleteFont.getName() + "\"", deleteFont, jsonData.getClassStyleMap());
                         undoableManager.clearUndoables();
                         
                         rootTable.refreshStyleProperties(true);
@@ -561,7 +561,6 @@ public class DialogFonts extends Dialog {
                     @Override
                     public void changed(ChangeListener.ChangeEvent event, Actor actor) {
                         freeTypeFonts.removeValue(deleteFont, true);
-                        projectData.setChangesSaved(false);
                         
                         for (Array<StyleData> datas : jsonData.getClassStyleMap().values()) {
                             for (StyleData data : datas) {
@@ -573,6 +572,7 @@ public class DialogFonts extends Dialog {
                             }
                         }
                         
+                        projectData.recordChange("Delete Font \"" + deleteFont.name + "\"", deleteFont, jsonData.getClassStyleMap());
                         undoableManager.clearUndoables();
                         
                         rootTable.refreshStyleProperties(true);
@@ -808,7 +808,7 @@ public class DialogFonts extends Dialog {
         rootTable.refreshStyleProperties(true);
         rootTable.refreshPreview();
         
-        projectData.setChangesSaved(false);
+        projectData.recordChange("Edit Font \"" + font.getName() + "\"", font, jsonData.getClassStyleMap());
         
         refreshTable();
     }
@@ -853,7 +853,7 @@ public class DialogFonts extends Dialog {
 
                     if (!hasFont) {
                         styleProperty.value = null;
-                        projectData.setChangesSaved(false);
+                        projectData.recordChange("Clear Missing Font", styleProperty);
                         rootTable.refreshStyleProperties(true);
                     }
                 }
@@ -886,7 +886,7 @@ public class DialogFonts extends Dialog {
 
                     if (!hasFont) {
                         customProperty.setValue(null);
-                        projectData.setChangesSaved(false);
+                        projectData.recordChange("Clear Missing Font", customProperty);
                         rootTable.refreshStyleProperties(true);
                     }
                 }
@@ -994,11 +994,6 @@ public class DialogFonts extends Dialog {
 
     private boolean produceAtlas() {
         try {
-            if (atlas != null) {
-                atlas.dispose();
-                atlas = null;
-            }
-            
             if (!atlasData.atlasCurrent) {
                 FileHandle defaultsFile = Main.appFolder.child("texturepacker/atlas-internal-settings.json");
                 atlasData.writeAtlas(defaultsFile);
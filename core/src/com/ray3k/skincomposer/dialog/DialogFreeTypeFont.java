@@ -244,16 +244,15 @@ public class DialogFreeTypeFont extends Dialog {
                         }
                     }
 
-                    originalData.bitmapFont.dispose();
+                    originalData.disposeBitmapFont();
                     jsonData.getFreeTypeFonts().removeValue(originalData, false);
 
                     undoableManager.clearUndoables();
-
-                    projectData.setChangesSaved(false);
                 }
 
                 data.createBitmapFont();
                 jsonData.getFreeTypeFonts().add(data);
+                projectData.recordChange("FreeType Font \"" + data.name + "\"", data, jsonData.getClassStyleMap());
 
                 for (DialogFreeTypeFontListener listener : listeners) {
                     listener.fontAdded(data);
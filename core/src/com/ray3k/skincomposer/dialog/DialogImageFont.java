@@ -51,6 +51,7 @@ import com.ray3k.skincomposer.utils.Utils;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Objects;
 import java.util.stream.Stream;
 
 import static com.ray3k.skincomposer.Main.*;
@@ -69,6 +70,7 @@ public class DialogImageFont extends Dialog {
     private static final CharArray BASELINE_EXCLUSION = new CharArray(new char[] {'C', 'G', 'J', 'O', 'Q', 'U', '0', '3', '4', '5', '6', '7', '8', '9', 'c', 'o', 'g', 'j', 'p', 'q', 'y', '_', '-', '=', '|'});
     private Array<BitmapCharacter> bitmapCharacters;
     private BitmapFont previewFont;
+    private Pixmap fontPixmap;
     private TextFieldStyle previewStyle;
     private FilesDroppedListener filesDroppedListener;
     private Array<Actor> fadables;
@@ -208,6 +210,11 @@ public class DialogImageFont extends Dialog {
             previewFont.dispose();
         }
         
+        if (fontPixmap != null) {
+            fontPixmap.dispose();
+            fontPixmap = null;
+        }
+        
         return super.remove();
     }
 
@@ -636,6 +643,7 @@ public class DialogImageFont extends Dialog {
             @Override
             public void changed(ChangeListener.ChangeEvent event, Actor actor) {
                 try {
+                    writeCharacterImages();
                     Utils.openFileExplorer(Main.appFolder.child("imagefont/characters/"));
                 } catch (IOException e) {
                     Gdx.app.error(getClass().getName(), "Error opening characters folder", e);
@@ -981,8 +989,15 @@ public class DialogImageFont extends Dialog {
     }
     
     private void loadPixmap(FileHandle fileHandle, boolean setDefaults) throws InvalidFontImageException {
-        var fontPixmap = new Pixmap(fileHandle);
-        var tempColor = new Color();
+        if (fontPixmap != null) {
+            fontPixmap.dispose();
+        }
+        var pixmap = new Pixmap(fileHandle);
+        fontPixmap = Utils.toRGBA8888(pixmap);
+        if (fontPixmap != pixmap) {
+            pixmap.dispose();
+        }
+        var profile = new AlphaProfile(fontPixmap);
         
         bitmapCharacters = new Array<>();
         var yBreaks = new IntArray();
@@ -996,47 +1011,29 @@ public class DialogImageFont extends Dialog {
         }
         var averageWidth = 0;
         
+        if (profile.bandStarts.size == 0) {
+            throw new InvalidFontImageException();
+        }
+        
+        //the gap size search only works on the profiles, the image is not scanned again
+        var columns = new boolean[fontPixmap.getWidth()];
         boolean failure;
         do {
             failure = false;
             bitmapCharacters.clear();
             yBreaks.clear();
-            var lookingForBreak = false;
             
-            //find vertical breaks for separate rows
-            for (int y = 0; y < fontPixmap.getHeight(); y++) {
-                var foundLine = false;
-                for (int x = 0; x < fontPixmap.getWidth(); x++) {
-                    tempColor.set(fontPixmap.getPixel(x, y));
-
-                    if (tempColor.a > 0) {
-                        foundLine = true;
-                        break;
-                    }
-                }
-
-                if (!lookingForBreak) {
-                    if (foundLine) {
-                        yBreaks.add(y);
-                        lookingForBreak = true;
-                    }
+            //merge rows that are separated by less than gapSize empty lines
+            var firstBands = new IntArray();
+            var lastBands = new IntArray();
+            for (int band = 0; band < profile.bandStarts.size; band++) {
+                if (band > 0 && profile.bandStarts.get(band) - profile.bandEnds.get(band - 1) < gapSize) {
+                    yBreaks.set(yBreaks.size - 1, profile.bandEnds.get(band));
+                    lastBands.set(lastBands.size - 1, band);
                 } else {
-                    if (!foundLine) {
-                        yBreaks.add(y);
-                        lookingForBreak = false;
-                    }
-                }
-            }
-            
-            if (yBreaks.size < 2) {
-                throw new InvalidFontImageException();
-            }
-            
-            for (int i = 1; i + 1 < yBreaks.size; i += 2) {
-                if (yBreaks.get(i + 1) - yBreaks.get(i) < gapSize) {
-                    yBreaks.removeIndex(i + 1);
-                    yBreaks.removeIndex(i);
-                    i -= 2;
+                    yBreaks.add(profile.bandStarts.get(band), profile.bandEnds.get(band));
+                    firstBands.add(band);
+                    lastBands.add(band);
                 }
             }
 
@@ -1044,21 +1041,15 @@ public class DialogImageFont extends Dialog {
             
             //find characters for each row
             for (int i = 0; i < yBreaks.size && !failure; i += 2) {
+                profile.mergeColumns(firstBands.get(i / 2), lastBands.get(i / 2), columns);
+                
                 BitmapCharacter bitmapCharacter = null;
-                lookingForBreak = false;
+                var lookingForBreak = false;
 
                 var gapCounter = 0;
 
-                for (int x = 0; x < fontPixmap.getWidth(); x++) {
-                    var foundCharacter = false;
-                    for (int y = yBreaks.get(i); y < yBreaks.get(i + 1); y++) {
-                        tempColor.set(fontPixmap.getPixel(x, y));
-
-                        if (tempColor.a > 0) {
-                            foundCharacter = true;
-                            break;
-                        }
-                    }
+                for (int x = 0; x < columns.length; x++) {
+                    var foundCharacter = columns[x];
 
                     if (!lookingForBreak) {
                         if (foundCharacter) {
@@ -1116,39 +1107,7 @@ public class DialogImageFont extends Dialog {
         
         //find crop y and crop height
         for (var character : bitmapCharacters) {
-            for (int y = character.y; y < character.y + character.height; y++) {
-                var lineEmpty = true;
-                for (int x = character.x; x < character.x + character.width; x++) {
-                    tempColor.set(fontPixmap.getPixel(x, y));
-                    if (tempColor.a > 0) {
-                        lineEmpty = false;
-                        break;
-                    }
-                }
-                if (!lineEmpty) {
-                    character.cropY = y - 1;
-                    break;
-                }
-            }
-        }
-        
-        for (var character : bitmapCharacters) {
-            for (int y = character.cropY + character.height; y >= character.cropY; y--) {
-                var lineEmpty = true;
-                for (int x = character.x; x < character.x + character.width; x++) {
-                    tempColor.set(fontPixmap.getPixel(x, y));
-                    if (tempColor.a > 0) {
-                        lineEmpty = false;
-                        break;
-                    }
-                }
-                if (!lineEmpty) {
-                    character.cropHeight = y - character.cropY + 1;
-                    character.yoffset = character.cropY - character.y;
-                    character.baseline = y - character.cropY;
-                    break;
-                }
-            }
+            profile.cropCharacter(character);
         }
         
         //find baseline
@@ -1161,16 +1120,6 @@ public class DialogImageFont extends Dialog {
             }
         }
         
-        //write characters to temporary PNGs
-        Main.appFolder.child("imagefont/characters").emptyDirectory();
-        for (var character : bitmapCharacters) {
-            var pixmap = new Pixmap(character.width, character.cropHeight, Pixmap.Format.RGBA8888);
-            pixmap.setBlending(Pixmap.Blending.None);
-            pixmap.drawPixmap(fontPixmap, 0, 0, character.x, character.cropY, character.width, character.cropHeight);
-            PixmapIO.writePNG(Main.appFolder.child("imagefont/characters/" + character.name + ".png"), pixmap);
-            pixmap.dispose();
-        }
-        
         //calculate auto kerning pairs
         if (settings.kerningPairsActivated) {
             var pairs = settings.kerningPairs.trim().split(" ");
@@ -1178,90 +1127,24 @@ public class DialogImageFont extends Dialog {
                 return t.length() == 2;
             }).toArray(String[]::new);
             
-            var charFolder = Main.appFolder.child("imagefont/characters");
-            var pixmaps = new Array<Pixmap>();
-            var testColor = new Color();
-            kerningPairValues.clear();
-            for (var pair : pairs) {
-                pixmaps.clear();
-                
-                //find images for each character
-                var fileHandles = charFolder.list((File dir, String name1) -> name1.matches(".* (" + (int) pair.charAt(0) + "|" + (int) pair.charAt(1) + ").png"));
-                
-                //create pixmaps
-                if (fileHandles.length == 1 && pair.charAt(0) == pair.charAt(1) || fileHandles.length == 2) for (var imageFileHandle : fileHandles) {
-                    var testPixmap = new Pixmap(imageFileHandle);
-                    pixmaps.add(testPixmap);
-                } else {
-                    continue;
-                }
-                
-                Pixmap compilationPixmap;
-                if (fileHandles.length == 1) {
-                    compilationPixmap = new Pixmap(pixmaps.get(0).getWidth() + pixmaps.get(0).getWidth(), pixmaps.get(0).getHeight(), Pixmap.Format.RGBA8888);
-                } else {
-                    compilationPixmap = new Pixmap(pixmaps.get(0).getWidth() + pixmaps.get(1).getWidth(), pixmaps.get(0).getHeight(), Pixmap.Format.RGBA8888);
-                }
-                
-                //convert each pixmap to 50% transparency on every opaque character
-                for (int i = 0; i < pixmaps.size; i++) {
-                    var testPixmap = pixmaps.get(i);
-                    var temp = new Pixmap(testPixmap.getWidth(), testPixmap.getHeight(), Pixmap.Format.RGBA8888);
-                    
-                    for (int y = 0; y < testPixmap.getHeight(); y++) {
-                        for (int x = 0; x < testPixmap.getWidth(); x++) {
-                            testColor.set(testPixmap.getPixel(x, y));
-                            
-                            if (testColor.a > 0) {
-                                testColor.set(1, 1, 1, .5f);
-                                temp.setColor(testColor);
-                                temp.drawPixel(x, y);
-                            }
-                        }
-                    }
-                    
-                    testPixmap.dispose();
-                    pixmaps.set(i, temp);
-                }
-                
-                var testX = pixmaps.get(0).getWidth();
-                float alpha = 0.0f;
-                while (testX >= 0.0f && alpha < .6f) {
-                    //overlap pixmaps and test transparency, 100% means fail
-                    compilationPixmap.setColor(Color.CLEAR);
-                    compilationPixmap.fill();
-                    
-                    if (fileHandles.length == 1) {
-                        compilationPixmap.drawPixmap(pixmaps.get(0), 0, 0);
-                        compilationPixmap.drawPixmap(pixmaps.get(0), testX, 0);
-                    } else {
-                        compilationPixmap.drawPixmap(pixmaps.get(0), 0, 0);
-                        compilationPixmap.drawPixmap(pixmaps.get(1), testX, 0);
-                    }
-                    
-                    for (int y = 0; y < compilationPixmap.getHeight(); y++) {
-                        for (int x = 0; x < compilationPixmap.getWidth(); x++) {
-                            testColor.set(compilationPixmap.getPixel(x, y));
-
-                            if (testColor.a > alpha) {
-                                alpha = testColor.a;
-                            }
-                        }
-                    }
-                    
-                    testX--;
-                }
-                
-                testX -= pixmaps.get(0).getWidth() - settings.kerningPairsOffset;
-                
-                //reset
-                for (var testPixmap : pixmaps) {
-                    testPixmap.dispose();
-                }
-                compilationPixmap.dispose();
-                
-                kerningPairValues.add(new KerningPair(pair.charAt(0), pair.charAt(1), testX));
+            var characterMap = new IntMap<BitmapCharacter>();
+            for (var character : bitmapCharacters) {
+                characterMap.put(character.character, character);
+                profile.findExtents(character);
             }
+            
+            //pairs are independent of each other and only read the extents
+            var offset = settings.kerningPairsOffset;
+            var values = Stream.of(pairs).parallel().map(pair -> {
+                var character1 = characterMap.get(pair.charAt(0));
+                var character2 = characterMap.get(pair.charAt(1));
+                if (character1 == null || character2 == null) return null;
+                
+                return new KerningPair(pair.charAt(0), pair.charAt(1), kerningValue(character1, character2, offset));
+            }).filter(Objects::nonNull).toArray(KerningPair[]::new);
+            
+            kerningPairValues.clear();
+            kerningPairValues.addAll(values);
         }
         
         //set defaults for fields
@@ -1288,8 +1171,168 @@ public class DialogImageFont extends Dialog {
             ((Spinner) findActor("space width")).setValue(MathUtils.round(averageWidth * .28f));
             settings.spaceWidth = MathUtils.round(averageWidth * .28f);
         }
+    }
+    
+    /**
+     * Copies the cropped character out of the font image.
+     * @param character
+     * @return A new pixmap that must be disposed by the caller.
+     */
+    private Pixmap characterPixmap(BitmapCharacter character) {
+        var pixmap = new Pixmap(character.width, character.cropHeight, Pixmap.Format.RGBA8888);
+        pixmap.setBlending(Pixmap.Blending.None);
+        pixmap.drawPixmap(fontPixmap, 0, 0, character.x, character.cropY, character.width, character.cropHeight);
+        return pixmap;
+    }
+    
+    /**
+     * Calculates the kerning of the pair by sliding the second character towards the first until they touch. In each
+     * row the characters first touch when the rightmost pixel of the first character meets the leftmost pixel of the
+     * second one, so the result follows from the row extents in a single pass. Rows are aligned at the top of the
+     * cropped characters and only the rows within the height of the first character are compared.
+     * @param character1
+     * @param character2
+     * @param offset The kerning pairs offset from the settings.
+     * @return
+     */
+    private static int kerningValue(BitmapCharacter character1, BitmapCharacter character2, int offset) {
+        int contact = 0;
+        int rows = Math.min(character1.cropHeight, character2.cropHeight);
+        for (int y = 0; y < rows; y++) {
+            if (character1.rightExtents[y] == -1 || character2.leftExtents[y] == -1) continue;
+            contact = Math.max(contact, character1.rightExtents[y] - character2.leftExtents[y]);
+        }
         
-        fontPixmap.dispose();
+        return contact - 1 - character1.width + offset;
+    }
+    
+    /**
+     * Writes the characters to imagefont/characters so they can be inspected by the user.
+     */
+    private void writeCharacterImages() {
+        var folder = Main.appFolder.child("imagefont/characters");
+        folder.emptyDirectory();
+        if (bitmapCharacters == null) return;
+        for (var character : bitmapCharacters) {
+            var pixmap = characterPixmap(character);
+            PixmapIO.writePNG(folder.child(character.name + ".png"), pixmap);
+            pixmap.dispose();
+        }
+    }
+    
+    /**
+     * The alpha projection profiles of the font image, built in a single pass over the pixel buffer. Rows that contain
+     * opaque pixels form bands. Each band records which columns contain opaque pixels.
+     */
+    private static class AlphaProfile {
+        final Pixmap pixmap;
+        final IntArray bandStarts = new IntArray();
+        final IntArray bandEnds = new IntArray();
+        final Array<boolean[]> bandColumns = new Array<>();
+        
+        AlphaProfile(Pixmap pixmap) {
+            this.pixmap = pixmap;
+            int width = pixmap.getWidth();
+            int height = pixmap.getHeight();
+            var pixels = pixmap.getPixels();
+            
+            boolean[] columns = null;
+            for (int y = 0; y < height; y++) {
+                var foundLine = false;
+                for (int x = 0, i = y * width * 4 + 3; x < width; x++, i += 4) {
+                    if (pixels.get(i) != 0) {
+                        if (!foundLine) {
+                            foundLine = true;
+                            if (columns == null) {
+                                columns = new boolean[width];
+                                bandColumns.add(columns);
+                                bandStarts.add(y);
+                            }
+                        }
+                        columns[x] = true;
+                    }
+                }
+                
+                if (!foundLine && columns != null) {
+                    bandEnds.add(y);
+                    columns = null;
+                }
+            }
+            if (columns != null) bandEnds.add(height);
+        }
+        
+        /**
+         * Combines the column profiles of the bands first to last into columns.
+         * @param first
+         * @param last
+         * @param columns
+         */
+        void mergeColumns(int first, int last, boolean[] columns) {
+            System.arraycopy(bandColumns.get(first), 0, columns, 0, columns.length);
+            for (int band = first + 1; band <= last; band++) {
+                var bandColumn = bandColumns.get(band);
+                for (int x = 0; x < columns.length; x++) {
+                    columns[x] |= bandColumn[x];
+                }
+            }
+        }
+        
+        /**
+         * Finds the first and last opaque lines of the character within its row.
+         * @param character
+         */
+        void cropCharacter(BitmapCharacter character) {
+            int width = pixmap.getWidth();
+            var pixels = pixmap.getPixels();
+            int top = -1;
+            int bottom = -1;
+            for (int y = character.y; y < character.y + character.height; y++) {
+                for (int x = character.x, i = (y * width + x) * 4 + 3; x < character.x + character.width; x++, i += 4) {
+                    if (pixels.get(i) != 0) {
+                        if (top == -1) top = y;
+                        bottom = y;
+                        break;
+                    }
+                }
+            }
+            
+            if (top == -1) {
+                top = character.y;
+                bottom = character.y + character.height - 1;
+            }
+            character.cropY = top - 1;
+            character.cropHeight = bottom - character.cropY + 1;
+            character.yoffset = character.cropY - character.y;
+            character.baseline = bottom - character.cropY;
+        }
+        
+        /**
+         * Finds the leftmost and rightmost opaque pixel in each row of the cropped character. Empty rows are -1.
+         * @param character
+         */
+        void findExtents(BitmapCharacter character) {
+            int width = pixmap.getWidth();
+            int height = pixmap.getHeight();
+            var pixels = pixmap.getPixels();
+            character.leftExtents = new int[character.cropHeight];
+            character.rightExtents = new int[character.cropHeight];
+            for (int row = 0; row < character.cropHeight; row++) {
+                int y = character.cropY + row;
+                int left = -1;
+                int right = -1;
+                if (y >= 0 && y < height) {
+                    int rowStart = y * width * 4 + 3;
+                    for (int x = 0; x < character.width; x++) {
+                        if (pixels.get(rowStart + (character.x + x) * 4) != 0) {
+                            if (left == -1) left = x;
+                            right = x;
+                        }
+                    }
+                }
+                character.leftExtents[row] = left;
+                character.rightExtents[row] = right;
+            }
+        }
     }
     
     private static class BitmapCharacter {
@@ -1303,6 +1346,8 @@ public class DialogImageFont extends Dialog {
         String name;
         char character;
         int baseline;
+        int[] leftExtents;
+        int[] rightExtents;
 
         @Override
         public String toString() {
@@ -1333,7 +1378,17 @@ public class DialogImageFont extends Dialog {
 
 
             //texturepack images
-            desktopWorker.packFontImages(new Array<>(Main.appFolder.child("imagefont/characters").list()), saveFile);
+            var images = new ObjectMap<String, Pixmap>();
+            for (var character : bitmapCharacters) {
+                images.put(character.name, characterPixmap(character));
+            }
+            try {
+                desktopWorker.packFontImages(images, saveFile);
+            } finally {
+                for (var image : images.values()) {
+                    image.dispose();
+                }
+            }
             
             var atlas = new TextureAtlas(saveFile.sibling(saveFile.nameWithoutExtension() + ".atlas"));
 
@@ -210,6 +210,7 @@ public class DialogImport extends Dialog {
                     jsonData.checkForPropertyConsistency();
                     atlasData.produceAtlas();
                     rootTable.populate();
+                    projectData.recordChange("Import \"" + fileHandle.name() + "\"");
                 } catch (Exception e) {
                     Gdx.app.error(getClass().getName(), "Error attempting to import JSON", e);
                     dialogFactory.showDialogError("Import Error...", "Error while attempting to import a skin.\nPlease check that all files exist.\n\nOpen log?");
@@ -24,6 +24,7 @@
 package com.ray3k.skincomposer.dialog;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.scenes.scene2d.Action;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.actions.DelayAction;
@@ -41,6 +42,8 @@ import static com.ray3k.skincomposer.Main.*;
 public class DialogLoading extends Dialog {
     private Runnable runnable;
     private Main main;
+    private Label progressLabel;
+    private int progressPercent = -1;
     
     public DialogLoading(String title, Runnable runnable, Main main) {
         super(title, skin, !DialogSceneComposer.isShowing() ? "dialog" : "scene");
@@ -56,18 +59,24 @@ public class DialogLoading extends Dialog {
         RunnableAction runnableAction = new RunnableAction();
         runnableAction.setRunnable(() -> {
             if (Utils.isMac()) {
-                if (runnable != null) {
-                    runnable.run();
+                try {
+                    if (runnable != null) {
+                        runnable.run();
+                    }
+                } finally {
+                    hide();
                 }
-                hide();
             } else {
                 Thread thread = new Thread(() -> {
-                    if (runnable != null) {
-                        runnable.run();
+                    try {
+                        if (runnable != null) {
+                            runnable.run();
+                        }
+                    } finally {
+                        Gdx.app.postRunnable(() -> {
+                            hide();
+                        });
                     }
-                    Gdx.app.postRunnable(() -> {
-                        hide();
-                    });
                 });
                 thread.start();
             }
@@ -87,5 +96,22 @@ public class DialogLoading extends Dialog {
         Table table = new Table(skin);
         table.setBackground(!DialogSceneComposer.isShowing() ? loadingAnimation : loadingAnimation2);
         t.add(table);
+        t.row();
+        progressLabel = new Label("", skin, !DialogSceneComposer.isShowing() ? "title" : "scene-title");
+        progressLabel.setAlignment(Align.center);
+        t.add(progressLabel);
+    }
+    
+    /**
+     * Displays the progress of the loading task. Can be called from any thread.
+     * @param progress The completed fraction from 0 to 1.
+     */
+    public void setProgress(float progress) {
+        int percent = MathUtils.round(MathUtils.clamp(progress, 0, 1) * 100);
+        synchronized (this) {
+            if (percent == progressPercent) return;
+            progressPercent = percent;
+        }
+        Gdx.app.postRunnable(() -> progressLabel.setText(percent + "%"));
     }
 }
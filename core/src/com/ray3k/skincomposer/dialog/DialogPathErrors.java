@@ -38,6 +38,7 @@ import com.ray3k.skincomposer.Main;
 import com.ray3k.skincomposer.data.DrawableData;
 import com.ray3k.skincomposer.data.FontData;
 import com.ray3k.skincomposer.data.FreeTypeFontData;
+import com.ray3k.skincomposer.data.ResourceResolver;
 import com.ray3k.skincomposer.utils.Utils;
 
 import static com.ray3k.skincomposer.Main.*;
@@ -312,10 +313,11 @@ public class DialogPathErrors extends Dialog {
 
     private void resolveAssetsFromFolder(FileHandle folder, Array<DrawableData> drawables, Array<FontData> fonts, Array<FreeTypeFontData> freeTypeFonts) {
         if (folder.isDirectory()) {
+            var resourceResolver = new ResourceResolver();
             for (DrawableData drawable : drawables) {
                 if (!foundDrawables.contains(drawable, true)) {
                     FileHandle file = folder.child(drawable.file.name());
-                    if (file.exists()) {
+                    if (resourceResolver.exists(file)) {
                         drawable.file = file;
                         foundDrawables.add(drawable);
                     }
@@ -325,7 +327,7 @@ public class DialogPathErrors extends Dialog {
             for (FontData font : fonts) {
                 if (!foundFonts.contains(font, true)) {
                     FileHandle file = folder.child(font.file.name());
-                    if (file.exists()) {
+                    if (resourceResolver.exists(file)) {
                         font.file = file;
                         foundFonts.add(font);
                     }
@@ -335,7 +337,7 @@ public class DialogPathErrors extends Dialog {
             for (var font : freeTypeFonts) {
                 if (!foundFreeTypeFonts.contains(font, true)) {
                     FileHandle file = folder.child(font.file.name());
-                    if (file.exists()) {
+                    if (resourceResolver.exists(file)) {
                         font.file = file;
                         foundFreeTypeFonts.add(font);
                     }
@@ -368,12 +370,12 @@ public class DialogPathErrors extends Dialog {
     @Override
     protected void result(Object object) {
         if ((boolean) object == true) {
-            projectData.setChangesSaved(false);
             atlasData.produceAtlas();
             rootTable.populate();
             for (FreeTypeFontData font : jsonData.getFreeTypeFonts()) {
                 font.createBitmapFont();
             }
+            projectData.recordChange("Fix Paths", atlasData.getDrawables(), jsonData.getFonts(), jsonData.getFreeTypeFonts());
         } else {
             mainListener.newFile();
         }
@@ -51,7 +51,7 @@ public class DialogTVG extends PopTable {
     public DialogTVG(DrawableData drawableData) {
         super(skin, "dialog");
         this.drawableData = drawableData;
-        drawable = new TinyVGDrawable((TinyVGDrawable) atlasData.getDrawablePairs().get(drawableData));
+        drawable = new TinyVGDrawable((TinyVGDrawable) atlasData.getDrawablePair(drawableData));
         tvg = drawable.tvg;
         
         populate();
@@ -228,6 +228,7 @@ public class DialogTVG extends PopTable {
         okButton.addListener(handListener);
         onChange(nameTextField, () -> {
             drawableData.name = nameTextField.getText();
+            atlasData.getDrawables().invalidateIndex();
             okButton.setDisabled(!atlasData.checkIfDrawableNameIsValid(drawableData.name, drawableData));
 
             fire(new DialogTvgEvent(drawableData, true));
@@ -354,7 +354,6 @@ public class PopSettings extends PopTable {
     }
     
     private void approve() {
-        projectData.setChangesSaved(false);
         projectData.setMaxUndos(maxUndos);
         projectData.setResourcesRelative(resourcesRelative);
         projectData.setAllowingWelcome(allowingWelcome);
@@ -362,6 +361,7 @@ public class PopSettings extends PopTable {
         projectData.setShowingExportWarnings(exportWarnings);
         projectData.setFullPathInRecentFiles(recentFullPath);
         projectData.setCheckingForUpdates(allowingUpdates);
+        projectData.recordChange("Settings", projectData.getPreferences());
         undoableManager.clearUndoables();
     
         if (resetTips) {
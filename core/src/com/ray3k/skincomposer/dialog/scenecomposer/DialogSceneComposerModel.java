@@ -423,7 +423,7 @@ public class DialogSceneComposerModel {
             table.setName(simTable.name);
         
             if (simTable.background != null) {
-                table.setBackground(atlasData.getDrawablePairs().get(simTable.background));
+                table.setBackground(atlasData.getDrawablePair(simTable.background));
             }
         
             if (simTable.color != null) {
@@ -595,7 +595,7 @@ public class DialogSceneComposerModel {
         } else if (simActor instanceof SimImage) {
             var simImage = (SimImage) simActor;
             if (simImage.drawable != null) {
-                var image = new Image(atlasData.getDrawablePairs().get(simImage.drawable));
+                var image = new Image(atlasData.getDrawablePair(simImage.drawable));
                 try {
                     image.setScaling((Scaling) Scaling.class.getField(simImage.scaling).get(null));
                 } catch (Exception e) {}
@@ -771,7 +771,7 @@ public class DialogSceneComposerModel {
             var container = new Container();
             container.align(sim.alignment);
             if (sim.background != null) {
-                container.setBackground(atlasData.drawablePairs.get(sim.background));
+                container.setBackground(atlasData.getDrawablePair(sim.background));
             }
             container.fill(sim.fillX, sim.fillY);
             if (sim.minWidth > 0) container.minWidth(sim.minWidth);
@@ -950,7 +950,7 @@ public class DialogSceneComposerModel {
             Actor actor = createPreviewWidget(simNode.actor == null  && dialog.view == View.EDIT ? new SimActor() : simNode.actor);
             if (actor == null) return null;
             node.setActor(actor);
-            if (simNode.icon != null) node.setIcon(atlasData.drawablePairs.get(simNode.icon));
+            if (simNode.icon != null) node.setIcon(atlasData.getDrawablePair(simNode.icon));
             node.setSelectable(simNode.selectable);
             for (var child : simNode.nodes) {
                 Tree.Node newNode = createPreviewNode(child);
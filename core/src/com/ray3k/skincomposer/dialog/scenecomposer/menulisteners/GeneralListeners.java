@@ -722,7 +722,7 @@ public class GeneralListeners {
                 stack.add(background);
                 Image image;
                 if (originalDrawable != null) {
-                    image = new Image(atlasData.drawablePairs.get(originalDrawable));
+                    image = new Image(atlasData.getDrawablePair(originalDrawable));
                 } else {
                     image = new Image((Drawable) null);
                 }
@@ -765,7 +765,7 @@ public class GeneralListeners {
                             public void closed() {
                                 if (confirmed) {
                                     drawableSelected.selected(drawableData);
-                                    image.setDrawable(atlasData.drawablePairs.get(drawableData));
+                                    image.setDrawable(atlasData.getDrawablePair(drawableData));
                                 } else {
                                     drawableSelected.selected(null);
                                     image.setDrawable(null);
@@ -148,6 +148,7 @@ public class DialogTenPatch extends Dialog {
                                 
                                 TextField textField = findActor("nameField");
                                 drawableData.name = textField.getText();
+                                atlasData.getDrawables().invalidateIndex();
                                 drawableData.file = file;
                                 
                                 var iter = drawableData.tenPatchData.regionNames.iterator();
@@ -278,6 +279,7 @@ public class DialogTenPatch extends Dialog {
             @Override
             public void changed(ChangeEvent event, Actor actor) {
                 drawableData.name = textField.getText();
+                atlasData.getDrawables().invalidateIndex();
                 validateName();
             }
         });
@@ -720,7 +722,7 @@ public class DialogTenPatch extends Dialog {
                 var dialog = dialogFactory.showDialogDrawables(true, new DialogDrawablesListener() {
                     @Override
                     public void confirmed(DrawableData drawable, DialogDrawables dialog) {
-                        var image = new Image(atlasData.getDrawablePairs().get(drawable));
+                        var image = new Image(atlasData.getDrawablePair(drawable));
                         image.setScaling(Scaling.none);
                         image.setColor(previewColor);
                         table.add(image).grow();
@@ -430,7 +430,7 @@ public class DialogTenPatchAnimation extends Dialog {
         var iter = drawableDatas.iterator();
         while (iter.hasNext()) {
             var drawable = iter.next();
-            if (!atlasData.getDrawablePairs().containsKey(drawable)) {
+            if (!atlasData.getDrawables().contains(drawable, true) && !atlasData.getFontDrawables().contains(drawable, true)) {
                 iter.remove();
             }
         }
@@ -480,7 +480,7 @@ public class DialogTenPatchAnimation extends Dialog {
         var iter = drawableDatas.iterator();
         while (iter.hasNext()) {
             var drawable = iter.next();
-            if (!atlasData.getDrawablePairs().containsKey(drawable)) {
+            if (!atlasData.getDrawables().contains(drawable, true) && !atlasData.getFontDrawables().contains(drawable, true)) {
                 iter.remove();
             }
         }
@@ -728,7 +728,7 @@ public class DialogTenPatchAnimation extends Dialog {
             button.add().uniform();
             
             button.row();
-            Image image = new Image(atlasData.getDrawablePairs().get(region));
+            Image image = new Image(atlasData.getDrawablePair(region));
             image.setScaling(Scaling.fit);
             button.add(image).colspan(3).expand();
             
@@ -779,7 +779,9 @@ public class DialogTenPatchAnimation extends Dialog {
                         var name = matcher.group();
     
                         var matches = new Array<DrawableData>();
-                        for (var drawableData : atlasData.getDrawablePairs().keys()) {
+                        var allDrawables = new Array<>(atlasData.getDrawables());
+                        allDrawables.addAll(atlasData.getFontDrawables());
+                        for (var drawableData : allDrawables) {
                             if (drawableData.name.matches(Pattern.quote(name) + "_\\d+")) {
                                 matches.add(drawableData);
                             }
@@ -15,6 +15,7 @@ import com.badlogic.gdx.scenes.scene2d.ui.TextButton.TextButtonStyle;
 import com.badlogic.gdx.scenes.scene2d.ui.TextField.TextFieldStyle;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
 import com.github.tommyettinger.textra.Font;
 import com.github.tommyettinger.textra.Font.DistanceFieldType;
 import com.github.tommyettinger.textra.Font.FontFamily;
@@ -22,6 +23,8 @@ import com.github.tommyettinger.textra.KnownFonts;
 import com.github.tommyettinger.textra.TypingAdapter;
 import com.github.tommyettinger.textra.TypingLabel;
 import com.ray3k.skincomposer.SpineDrawable;
+import com.ray3k.skincomposer.data.FontData;
+import com.ray3k.skincomposer.data.FreeTypeFontData;
 import com.ray3k.skincomposer.dialog.textratypist.PopTextraEffects.PopEffectsListener;
 import com.ray3k.skincomposer.dialog.textratypist.PopTextraEmoji.PopEmojiListener;
 import com.ray3k.stripe.PopColorPicker;
@@ -29,6 +32,8 @@ import com.ray3k.stripe.PopColorPicker.PopColorPickerListener;
 import com.ray3k.stripe.PopColorPicker.PopColorPickerStyle;
 import com.ray3k.stripe.PopTable;
 
+import java.util.function.Supplier;
+
 import static com.ray3k.skincomposer.Main.*;
 import static com.ray3k.skincomposer.utils.Utils.onChange;
 
@@ -49,13 +54,32 @@ public class PopTextraTypist extends PopTable {
     private TypingAdapter typingAdapter;
     private static String codeText = "";
     private boolean playAnimation = true;
+    /**
+     * The standard family is loaded once and shared by every playground.
+     */
+    private static Font standardFamilyFont;
+    /**
+     * Skin fonts converted to TextraTypist fonts, keyed by fontKey(). Entries are kept until the font they were
+     * converted from changes.
+     */
+    private static final ObjectMap<String, ConvertedFont> convertedFonts = new ObjectMap<>();
+    private static Font skinFamilyFont;
+    private static String skinFamilyKey;
+    
+    private static class ConvertedFont {
+        /**
+         * The BitmapFont loaded for a FontData. Null for FreeType fonts, whose BitmapFont belongs to the project.
+         */
+        BitmapFont bitmapFont;
+        Font font;
+    }
     
     public PopTextraTypist() {
         super(new PopTableStyle());
     
         ttColorPickerStyle = createColorPickerStyle();
         
-        masterFont = KnownFonts.getStandardFamily();
+        masterFont = getStandardFamilyFont();
         
         typingAdapter = new TypingAdapter() {
             @Override
@@ -552,16 +576,14 @@ public class PopTextraTypist extends PopTable {
     
     private void activateStandardFontFamily() {
         fontMode = FontMode.STANDARD;
-        masterFont.dispose();
         var items = new Array<String>();
         items.add("Select a font...");
         items.add("Default");
         
-        masterFont = KnownFonts.getStandardFamily();
+        masterFont = getStandardFamilyFont();
         for (var font : masterFont.family.connected) {
             if (font != null) {
                 items.add(font.name);
-                KnownFonts.addEmoji(font);
             }
         }
 
@@ -574,55 +596,82 @@ public class PopTextraTypist extends PopTable {
         previewScrollPane.setActor(previewTypingLabel);
     }
     
+    private static Font getStandardFamilyFont() {
+        if (standardFamilyFont == null) {
+            standardFamilyFont = KnownFonts.getStandardFamily();
+            for (var font : standardFamilyFont.family.connected) {
+                if (font != null) KnownFonts.addEmoji(font);
+            }
+        }
+        return standardFamilyFont;
+    }
+    
     private void activateSkinFontFamily() {
         fontMode = FontMode.SKIN;
-        masterFont.dispose();
         var items = new Array<String>();
         items.add("Select a font...");
         items.add("Default");
         
         var names = new Array<String>();
-        var fonts = new Array<Font>();
+        var keys = new Array<String>();
         
         for (var fontData : jsonData.getFonts()) {
-            var bitmapFont = new BitmapFont(fontData.file);
-            var font = new Font(bitmapFont, DistanceFieldType.STANDARD, 0, 0, 0, 0, true);
             names.add(fontData.getName());
-            fonts.add(font);
+            keys.add(fontKey(fontData));
             items.add(fontData.getName());
         }
         
         for (var freetypeFontData : jsonData.getFreeTypeFonts()) {
-            var bitmapFont = freetypeFontData.bitmapFont;
-            var font = new Font(bitmapFont, DistanceFieldType.STANDARD, 0, 0, 0, 0, true);
+            if (freetypeFontData.bitmapFont == null) continue;
             names.add(freetypeFontData.name);
-            fonts.add(font);
+            keys.add(fontKey(freetypeFontData));
             items.add(freetypeFontData.name);
         }
         
         fontSelectBox.setItems(items);
         if (names.size > 15) {
             names.removeRange(15, names.size - 1);
-            fonts.removeRange(15, fonts.size - 1);
+            keys.removeRange(15, keys.size - 1);
         }
         
-        var namesArray = new String[names.size];
-        for (int i = 0; i < names.size; i++) {
-            namesArray[i] = names.get(i);
-        }
-    
-        var fontsArray = new Font[fonts.size];
-        for (int i = 0; i < fonts.size; i++) {
-            fontsArray[i] = fonts.get(i);
-        }
+        var familyKey = String.join("\n", keys);
+        if (skinFamilyFont == null || !familyKey.equals(skinFamilyKey)) {
+            var fonts = new Array<Font>();
+            for (var fontData : jsonData.getFonts()) {
+                if (fonts.size == names.size) break;
+                fonts.add(convertFont(fontKey(fontData), () -> new BitmapFont(fontData.file), true));
+            }
+            for (var freetypeFontData : jsonData.getFreeTypeFonts()) {
+                if (fonts.size == names.size) break;
+                if (freetypeFontData.bitmapFont == null) continue;
+                fonts.add(convertFont(fontKey(freetypeFontData), () -> freetypeFontData.bitmapFont, false));
+            }
+            
+            //fonts that no longer belong to the project are released
+            var iterator = convertedFonts.iterator();
+            while (iterator.hasNext()) {
+                var entry = iterator.next();
+                if (!keys.contains(entry.key, false)) {
+                    if (entry.value.bitmapFont != null) entry.value.bitmapFont.dispose();
+                    iterator.remove();
+                }
+            }
+            
+            var namesArray = new String[names.size];
+            for (int i = 0; i < names.size; i++) {
+                namesArray[i] = names.get(i);
+            }
         
-        var fontFamily = new FontFamily(namesArray, fontsArray);
-        masterFont = fontFamily.connected[0].setFamily(fontFamily);
-        for(Font font : fontFamily.connected)
-        {
-            if(font != null)
-                KnownFonts.addEmoji(font);
+            var fontsArray = new Font[fonts.size];
+            for (int i = 0; i < fonts.size; i++) {
+                fontsArray[i] = fonts.get(i);
+            }
+            
+            var fontFamily = new FontFamily(namesArray, fontsArray);
+            skinFamilyFont = fontFamily.connected[0].setFamily(fontFamily);
+            skinFamilyKey = familyKey;
         }
+        masterFont = skinFamilyFont;
     
         previewTypingLabel = new TypingLabel(previewTypingLabel.getOriginalText().toString(), masterFont);
         previewTypingLabel.setWrap(true);
@@ -630,6 +679,40 @@ public class PopTextraTypist extends PopTable {
         previewScrollPane.setActor(previewTypingLabel);
     }
     
+    /**
+     * Returns the converted font for the key. A BitmapFont is only obtained and converted if no font with the same key
+     * was converted before.
+     * @param key
+     * @param bitmapFontSupplier Provides the BitmapFont to convert. Only called if the font is not converted yet.
+     * @param ownsBitmapFont True if the BitmapFont is created for the conversion and must be disposed with it.
+     * @return
+     */
+    private static Font convertFont(String key, Supplier<BitmapFont> bitmapFontSupplier, boolean ownsBitmapFont) {
+        var convertedFont = convertedFonts.get(key);
+        if (convertedFont != null) return convertedFont.font;
+        
+        var bitmapFont = bitmapFontSupplier.get();
+        convertedFont = new ConvertedFont();
+        convertedFont.bitmapFont = ownsBitmapFont ? bitmapFont : null;
+        convertedFont.font = new Font(bitmapFont, DistanceFieldType.STANDARD, 0, 0, 0, 0, true);
+        KnownFonts.addEmoji(convertedFont.font);
+        convertedFonts.put(key, convertedFont);
+        return convertedFont.font;
+    }
+    
+    private static String fontKey(FontData fontData) {
+        return "font|" + fontData.getName() + "|" + fontData.file.path() + "|" + fontData.file.lastModified();
+    }
+    
+    /**
+     * FreeType fonts get a new generation whenever their BitmapFont is regenerated, so it identifies the version.
+     * @param freeTypeFontData
+     * @return
+     */
+    private static String fontKey(FreeTypeFontData freeTypeFontData) {
+        return "freetype|" + freeTypeFontData.name + "|" + freeTypeFontData.bitmapFontGeneration;
+    }
+    
     @Override
     public void hide() {
         stage.setKeyboardFocus(null);
@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * MIT License
+ * 
+ * Copyright (c) 2022 Raymond Buckley
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.ray3k.skincomposer.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.ObjectMap;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * Caches information about image files so that they do not have to be decoded every time it is needed. Dimensions are
+ * read from the PNG or JPEG header. Derived values such as the average edge color are calculated once per version of
+ * the file. Entries are keyed by path and are discarded when the file length or modification time changes.
+ */
+public class ImageMetadata {
+    private static final ObjectMap<String, ImageInfo> cache = new ObjectMap<>();
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    /**
+     * The number of metadata files that are kept in a folder. The files of the least recently used projects are deleted
+     * beyond this.
+     */
+    private static final int MAX_FILES = 100;
+    
+    public static class ImageInfo {
+        public long length;
+        public long lastModified;
+        public int width = -1;
+        public int height = -1;
+        public Color edgeColor;
+    }
+    
+    /**
+     * Returns the cached information for the file. Dimensions are read if they are not known yet.
+     * @param file
+     * @return
+     */
+    public static synchronized ImageInfo get(FileHandle file) {
+        var info = entry(file);
+        if (info.width == -1) {
+            if (!readHeader(file, info)) {
+                var pixmap = new Pixmap(file);
+                info.width = pixmap.getWidth();
+                info.height = pixmap.getHeight();
+                pixmap.dispose();
+            }
+        }
+        return info;
+    }
+    
+    /**
+     * Returns the average edge color of the image. Nine patch borders are ignored.
+     * @param file
+     * @return A new Color that can be modified by the caller.
+     */
+    public static synchronized Color edgeColor(FileHandle file) {
+        var info = entry(file);
+        if (info.edgeColor == null) {
+            var pixmap = new Pixmap(file);
+            info.width = pixmap.getWidth();
+            info.height = pixmap.getHeight();
+            info.edgeColor = Utils.averageEdgeColor(pixmap, Utils.isNinePatch(file.name()));
+            pixmap.dispose();
+        }
+        return new Color(info.edgeColor);
+    }
+    
+    private static ImageInfo entry(FileHandle file) {
+        long length = file.length();
+        long lastModified = file.lastModified();
+        var info = cache.get(file.path());
+        if (info == null || info.length != length || info.lastModified != lastModified) {
+            info = new ImageInfo();
+            info.length = length;
+            info.lastModified = lastModified;
+            cache.put(file.path(), info);
+        }
+        return info;
+    }
+    
+    /**
+     * Reads the dimensions from the PNG IHDR chunk or the JPEG SOF segment.
+     * @param file
+     * @param info
+     * @return false if the file is not a PNG or JPEG or the header could not be read.
+     */
+    private static boolean readHeader(FileHandle file, ImageInfo info) {
+        try (var input = new DataInputStream(file.read(512))) {
+            int first = input.readUnsignedByte();
+            int second = input.readUnsignedByte();
+            
+            if (first == (PNG_SIGNATURE[0] & 0xFF) && second == PNG_SIGNATURE[1]) {
+                for (int i = 2; i < PNG_SIGNATURE.length; i++) {
+                    if (input.readByte() != PNG_SIGNATURE[i]) return false;
+                }
+                
+                //chunk length followed by the IHDR type, which must be the first chunk
+                input.readInt();
+                if (input.readInt() != 0x49484452) return false;
+                info.width = input.readInt();
+                info.height = input.readInt();
+                return true;
+            } else if (first == 0xFF && second == 0xD8) {
+                while (true) {
+                    int marker = input.readUnsignedByte();
+                    if (marker != 0xFF) return false;
+                    
+                    //skip fill bytes
+                    while (marker == 0xFF) marker = input.readUnsignedByte();
+                    
+                    //markers without a length
+                    if (marker == 0x01 || marker >= 0xD0 && marker <= 0xD8) continue;
+                    if (marker == 0xD9) return false;
+                    
+                    int length = input.readUnsignedShort();
+                    boolean startOfFrame = marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 && marker != 0xC8 && marker != 0xCC;
+                    if (startOfFrame) {
+                        input.readUnsignedByte();
+                        info.height = input.readUnsignedShort();
+                        info.width = input.readUnsignedShort();
+                        return true;
+                    }
+                    
+                    for (int skip = length - 2; skip > 0; ) {
+                        int skipped = input.skipBytes(skip);
+                        if (skipped <= 0) return false;
+                        skip -= skipped;
+                    }
+                }
+            }
+        } catch (EOFException e) {
+            return false;
+        } catch (IOException e) {
+            Gdx.app.error(ImageMetadata.class.getName(), "Error reading image header: " + file.path(), e);
+        }
+        return false;
+    }
+    
+    /**
+     * Adds the entries stored in the file to the cache. Entries that no longer match their file are discarded on use.
+     * The file is marked as recently used.
+     * @param file
+     */
+    public static synchronized void load(FileHandle file) {
+        if (!file.exists()) return;
+        
+        try {
+            file.file().setLastModified(System.currentTimeMillis());
+            ObjectMap<String, ImageInfo> entries = new Json().fromJson(ObjectMap.class, ImageInfo.class, file);
+            if (entries != null) cache.putAll(entries);
+        } catch (Exception e) {
+            Gdx.app.error(ImageMetadata.class.getName(), "Error reading image metadata: " + file.path(), e);
+        }
+    }
+    
+    /**
+     * Writes the cached entries of the given images to the file. The least recently used files in the same folder are
+     * deleted if there are more than MAX_FILES.
+     * @param file
+     * @param images
+     */
+    public static synchronized void save(FileHandle file, Array<FileHandle> images) {
+        var entries = new ObjectMap<String, ImageInfo>();
+        for (var image : images) {
+            var info = cache.get(image.path());
+            if (info != null) entries.put(image.path(), info);
+        }
+        if (entries.size == 0) return;
+        
+        try {
+            file.writeString(new Json().toJson(entries, ObjectMap.class, ImageInfo.class), false);
+            trim(file);
+        } catch (Exception e) {
+            Gdx.app.error(ImageMetadata.class.getName(), "Error writing image metadata: " + file.path(), e);
+        }
+    }
+    
+    /**
+     * Deletes the least recently used metadata files until no more than MAX_FILES are left in the folder.
+     * @param current The file that was just written, which is never deleted.
+     */
+    private static void trim(FileHandle current) {
+        var files = new Array<FileHandle>(current.parent().list(".json"));
+        if (files.size <= MAX_FILES) return;
+        
+        files.sort((o1, o2) -> Long.compare(o2.lastModified(), o1.lastModified()));
+        for (int i = MAX_FILES; i < files.size; i++) {
+            if (!files.get(i).equals(current)) files.get(i).delete();
+        }
+    }
+}
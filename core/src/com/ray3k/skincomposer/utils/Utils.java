@@ -42,8 +42,10 @@ import com.badlogic.gdx.scenes.scene2d.InputListener;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.ray3k.skincomposer.ResizeFourArrowListener;
 import com.ray3k.stripe.ResizeWidget;
+import org.lwjgl.glfw.GLFW;
 import regexodus.Pattern;
 
 import javax.imageio.ImageIO;
@@ -52,13 +54,23 @@ import javax.imageio.stream.FileImageInputStream;
 import java.awt.*;
 import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
@@ -66,6 +78,11 @@ import static com.ray3k.skincomposer.Main.*;
 
 public class Utils {
     public static String os;
+    /**
+     * Pixmaps with more pixels than this are analyzed in parallel bands.
+     */
+    private static final int PARALLEL_PIXELS = 256 * 256;
+    
     public static Color averageColor(FileHandle file) {
         Pixmap pixmap = new Pixmap(file);
         Color returnValue = averageColor(pixmap);
@@ -79,76 +96,87 @@ public class Utils {
      * @return 
      */
     public static Color averageColor(Pixmap pixmap) {
-        Color temp = new Color();
-        float sumR = 0.0f;
-        float sumG = 0.0f;
-        float sumB = 0.0f;
-        int count = 0;
-        for (int y = 0; y < pixmap.getHeight(); y++) {
-            for (int x = 0; x < pixmap.getWidth(); x++) {
-                temp.set(pixmap.getPixel(x, y));
-                if (temp.a > 0) {
-                    sumR += temp.r;
-                    sumG += temp.g;
-                    sumB += temp.b;
-                    count++;
+        var rgba = toRGBA8888(pixmap);
+        try {
+            int width = rgba.getWidth();
+            long[] sums = forEachBand(rgba, 0, rgba.getHeight(), (pixels, start, end, bandSums) -> {
+                for (int i = start * width * 4, n = end * width * 4; i < n; i += 4) {
+                    int pixel = pixels.getInt(i);
+                    if ((pixel & 0xFF) != 0) addPixel(pixel, bandSums);
                 }
-            }
-        }
-        
-        if (count == 0) {
-            return new Color(Color.BLACK);
-        } else {
-            return new Color(sumR / count, sumG / count, sumB / count, 1.0f);
+            });
+            return averageOfSums(sums);
+        } finally {
+            if (rgba != pixmap) rgba.dispose();
         }
     }
     
     public static Color averageEdgeColor(FileHandle file) {
-        Pixmap pixmap = new Pixmap(file);
-        Color returnValue = averageEdgeColor(pixmap, file.name().matches("(?i).*\\.9\\.png$"));
-        pixmap.dispose();
-        return returnValue;
+        return ImageMetadata.edgeColor(file);
     }
     
+    /**
+     * Tinting multiplies the color channels of every pixel, so the tinted average is derived from the cached average
+     * edge color of the untinted image.
+     * @param file
+     * @param color
+     * @return
+     */
     public static Color averageEdgeColor(FileHandle file, Color color) {
-        Pixmap pixmap = new Pixmap(file);
-        pixmap = tintPixmap(pixmap, color);
-        Color returnValue = averageEdgeColor(pixmap, file.name().matches("(?i).*\\.9\\.png$"));
-        pixmap.dispose();
+        Color returnValue = ImageMetadata.edgeColor(file);
+        returnValue.r *= color.r;
+        returnValue.g *= color.g;
+        returnValue.b *= color.b;
         return returnValue;
     }
     
     public static Vector2 imageDimensions(FileHandle file) {
         Vector2 vector = new Vector2();
-        Pixmap pixmap = new Pixmap(file);
-        vector.x = pixmap.getWidth();
-        vector.y = pixmap.getHeight();
+        var info = ImageMetadata.get(file);
+        vector.x = info.width;
+        vector.y = info.height;
         if (file.name().matches("(?i).*\\.9\\.png$")) {
             vector.x = MathUtils.clamp(vector.x - 2, 0.0f, vector.x);
             vector.y = MathUtils.clamp(vector.y - 2, 0.0f, vector.y);
         }
-        pixmap.dispose();
         return vector;
     }
     
     /**
-     * Does not dispose pixmap
+     * Multiplies the color channels of every pixel by the color. Alpha is retained. Does not dispose pixmap
      * @param pixmap
      * @return 
      */
     public static Pixmap tintPixmap(Pixmap pixmap, Color color) {
-        Color tempColor = new Color();
-        for (int y = 0; y < pixmap.getHeight(); y++) {
-            for (int x = 0; x < pixmap.getWidth(); x++) {
-                tempColor.set(pixmap.getPixel(x, y));
-                float a = tempColor.a;
-                tempColor.mul(color);
-                tempColor.a = a;
-                pixmap.setColor(tempColor);
-                pixmap.drawPixel(x, y);
-                tempColor.set(pixmap.getPixel(x, y));
+        if (pixmap.getFormat() != Pixmap.Format.RGBA8888) {
+            Color tempColor = new Color();
+            var blending = pixmap.getBlending();
+            pixmap.setBlending(Pixmap.Blending.None);
+            for (int y = 0; y < pixmap.getHeight(); y++) {
+                for (int x = 0; x < pixmap.getWidth(); x++) {
+                    tempColor.set(pixmap.getPixel(x, y));
+                    float a = tempColor.a;
+                    tempColor.mul(color);
+                    tempColor.a = a;
+                    pixmap.setColor(tempColor);
+                    pixmap.drawPixel(x, y);
+                }
             }
+            pixmap.setBlending(blending);
+            return pixmap;
         }
+        
+        int width = pixmap.getWidth();
+        float r = MathUtils.clamp(color.r, 0, 1);
+        float g = MathUtils.clamp(color.g, 0, 1);
+        float b = MathUtils.clamp(color.b, 0, 1);
+        forEachBand(pixmap, 0, pixmap.getHeight(), (pixels, start, end, bandSums) -> {
+            for (int i = start * width * 4, n = end * width * 4; i < n; i += 4) {
+                int pixel = pixels.getInt(i);
+                pixels.putInt(i, (int) ((pixel >>> 24) * r) << 24 | (int) ((pixel >>> 16 & 0xFF) * g) << 16
+                        | (int) ((pixel >>> 8 & 0xFF) * b) << 8 | pixel & 0xFF);
+            }
+        });
         return pixmap;
     }
     
@@ -159,77 +187,283 @@ public class Utils {
      * @return 
      */
     public static Color averageEdgeColor(Pixmap pixmap, boolean ninePatch) {
-        int border = 0;
-        if (ninePatch) {
-            border = 1;
+        int border = ninePatch ? 1 : 0;
+        var rgba = toRGBA8888(pixmap);
+        try {
+            int width = rgba.getWidth();
+            int height = rgba.getHeight();
+            
+            //first opaque pixel from the left and right edge of each row
+            long[] sums = forEachBand(rgba, border, height - border, (pixels, start, end, bandSums) -> {
+                for (int y = start; y < end; y++) {
+                    int row = y * width;
+                    for (int x = border; x < width - border; x++) {
+                        int pixel = pixels.getInt((row + x) * 4);
+                        if ((pixel & 0xFF) != 0) {
+                            addPixel(pixel, bandSums);
+                            break;
+                        }
+                    }
+                    for (int x = width - 1 - border; x > border; x--) {
+                        int pixel = pixels.getInt((row + x) * 4);
+                        if ((pixel & 0xFF) != 0) {
+                            addPixel(pixel, bandSums);
+                            break;
+                        }
+                    }
+                }
+            });
+            
+            //first opaque pixel from the top and bottom edge of each column
+            long[] columnSums = forEachBand(rgba, border, width - border, (pixels, start, end, bandSums) -> {
+                for (int x = start; x < end; x++) {
+                    for (int y = border; y < height - border; y++) {
+                        int pixel = pixels.getInt((y * width + x) * 4);
+                        if ((pixel & 0xFF) != 0) {
+                            addPixel(pixel, bandSums);
+                            break;
+                        }
+                    }
+                    for (int y = height - 1 - border; y > border; y--) {
+                        int pixel = pixels.getInt((y * width + x) * 4);
+                        if ((pixel & 0xFF) != 0) {
+                            addPixel(pixel, bandSums);
+                            break;
+                        }
+                    }
+                }
+            });
+            
+            for (int i = 0; i < sums.length; i++) sums[i] += columnSums[i];
+            return averageOfSums(sums);
+        } finally {
+            if (rgba != pixmap) rgba.dispose();
         }
+    }
+    
+    /**
+     * Processes a range of rows or columns of an RGBA8888 pixmap.
+     */
+    private interface PixelKernel {
+        /**
+         * @param pixels The pixel buffer in big endian order, so getInt() returns RGBA8888 values.
+         * @param start
+         * @param end
+         * @param sums The red, green, and blue totals and the pixel count of this range.
+         */
+        void process(ByteBuffer pixels, int start, int end, long[] sums);
+    }
+    
+    /**
+     * Runs the kernel over the range. Pixmaps larger than PARALLEL_PIXELS are split into bands that are processed in
+     * parallel. Bands may write to the pixels they cover.
+     * @param pixmap
+     * @param start
+     * @param end
+     * @param kernel
+     * @return The sums of all bands added together.
+     */
+    private static long[] forEachBand(Pixmap pixmap, int start, int end, PixelKernel kernel) {
+        var pixels = pixmap.getPixels();
+        int length = Math.max(end - start, 0);
+        int bands = pixmap.getWidth() * pixmap.getHeight() > PARALLEL_PIXELS
+                ? Math.min(length, Runtime.getRuntime().availableProcessors() * 4) : 1;
         
-        Color temp = new Color();
-        float sumR = 0.0f;
-        float sumG = 0.0f;
-        float sumB = 0.0f;
-        int count = 0;
-
-        //left edge
-        for (int y = border; y < pixmap.getHeight() - border; y++) {
-            for (int x = border; x < pixmap.getWidth() - border; x++) {
-                temp.set(pixmap.getPixel(x, y));
-                if (temp.a > 0) {
-                    sumR += temp.r;
-                    sumG += temp.g;
-                    sumB += temp.b;
-                    count++;
-                    break;
-                }
-            }
+        if (bands <= 1) {
+            long[] sums = new long[4];
+            kernel.process(pixels.duplicate().order(ByteOrder.BIG_ENDIAN), start, start + length, sums);
+            return sums;
         }
         
-        //right edge
-        for (int y = border; y < pixmap.getHeight() - border; y++) {
-            for (int x = pixmap.getWidth() - 1 - border; x > border; x--) {
-                temp.set(pixmap.getPixel(x, y));
-                if (temp.a > 0) {
-                    sumR += temp.r;
-                    sumG += temp.g;
-                    sumB += temp.b;
-                    count++;
-                    break;
-                }
-            }
+        return IntStream.range(0, bands).parallel().mapToObj(band -> {
+            long[] sums = new long[4];
+            int bandStart = start + (int) ((long) length * band / bands);
+            int bandEnd = start + (int) ((long) length * (band + 1) / bands);
+            kernel.process(pixels.duplicate().order(ByteOrder.BIG_ENDIAN), bandStart, bandEnd, sums);
+            return sums;
+        }).reduce(new long[4], (sums1, sums2) -> {
+            long[] sums = new long[4];
+            for (int i = 0; i < sums.length; i++) sums[i] = sums1[i] + sums2[i];
+            return sums;
+        });
+    }
+    
+    private static void addPixel(int pixel, long[] sums) {
+        sums[0] += pixel >>> 24;
+        sums[1] += pixel >>> 16 & 0xFF;
+        sums[2] += pixel >>> 8 & 0xFF;
+        sums[3]++;
+    }
+    
+    private static Color averageOfSums(long[] sums) {
+        if (sums[3] == 0) {
+            return new Color(Color.BLACK);
+        } else {
+            float divisor = sums[3] * 255f;
+            return new Color(sums[0] / divisor, sums[1] / divisor, sums[2] / divisor, 1.0f);
         }
+    }
+    
+    /**
+     * Returns the pixmap if it is already in RGBA8888 format. Otherwise a converted copy is returned which must be
+     * disposed by the caller.
+     * @param pixmap
+     * @return
+     */
+    public static Pixmap toRGBA8888(Pixmap pixmap) {
+        if (pixmap.getFormat() == Pixmap.Format.RGBA8888) return pixmap;
+        var copy = new Pixmap(pixmap.getWidth(), pixmap.getHeight(), Pixmap.Format.RGBA8888);
+        copy.setBlending(Pixmap.Blending.None);
+        copy.drawPixmap(pixmap, 0, 0);
+        return copy;
+    }
+    
+    /**
+     * Replaces the contents of the RGBA8888 pixmap with a signed distance field of its alpha channel. Pixels with an
+     * alpha of at least 128 are inside. The result is white with an alpha of 0.5 on the edge, rising to 1 at spread
+     * pixels inside and falling to 0 at spread pixels outside.
+     * @param pixmap
+     * @param spread The distance in pixels covered by the field on each side of the edge.
+     */
+    public static void distanceField(Pixmap pixmap, int spread) {
+        int width = pixmap.getWidth();
+        int height = pixmap.getHeight();
+        var pixels = pixmap.getPixels().duplicate().order(ByteOrder.BIG_ENDIAN);
         
-        //top edge
-        for (int x = border; x < pixmap.getWidth() - border; x++) {
-            for (int y = border; y < pixmap.getHeight() - border; y++) {
-                temp.set(pixmap.getPixel(x, y));
-                if (temp.a > 0) {
-                    sumR += temp.r;
-                    sumG += temp.g;
-                    sumB += temp.b;
-                    count++;
-                    break;
-                }
+        //squared distance to the nearest inside pixel and to the nearest outside pixel
+        var toInside = new float[width * height];
+        var toOutside = new float[width * height];
+        for (int i = 0; i < toInside.length; i++) {
+            boolean inside = (pixels.get(i * 4 + 3) & 0xFF) >= 128;
+            toInside[i] = inside ? 0 : Float.POSITIVE_INFINITY;
+            toOutside[i] = inside ? Float.POSITIVE_INFINITY : 0;
+        }
+        squaredDistanceTransform(toInside, width, height);
+        squaredDistanceTransform(toOutside, width, height);
+        
+        float scale = 1f / (2 * Math.max(spread, 1));
+        for (int i = 0; i < toInside.length; i++) {
+            float distance = toOutside[i] > 0 ? (float) Math.sqrt(toOutside[i]) - .5f : .5f - (float) Math.sqrt(toInside[i]);
+            int alpha = Math.round(MathUtils.clamp(.5f + distance * scale, 0, 1) * 255);
+            pixels.putInt(i * 4, 0xFFFFFF00 | alpha);
+        }
+    }
+    
+    /**
+     * Exact squared euclidean distance transform by Felzenszwalb and Huttenlocher, applied to the columns and then the
+     * rows of the grid. Each row and column is independent so they are processed in parallel.
+     * @param grid 0 for feature pixels and infinity for all others. Overwritten with the squared distances.
+     * @param width
+     * @param height
+     */
+    private static void squaredDistanceTransform(float[] grid, int width, int height) {
+        IntStream.range(0, width).parallel().forEach(x -> {
+            var f = new float[height];
+            for (int y = 0; y < height; y++) f[y] = grid[y * width + x];
+            var d = squaredDistanceTransform(f);
+            for (int y = 0; y < height; y++) grid[y * width + x] = d[y];
+        });
+        IntStream.range(0, height).parallel().forEach(y -> {
+            var f = new float[width];
+            System.arraycopy(grid, y * width, f, 0, width);
+            System.arraycopy(squaredDistanceTransform(f), 0, grid, y * width, width);
+        });
+    }
+    
+    private static float[] squaredDistanceTransform(float[] f) {
+        int n = f.length;
+        var d = new float[n];
+        var v = new int[n];
+        var z = new float[n + 1];
+        int k = -1;
+        for (int q = 0; q < n; q++) {
+            if (f[q] == Float.POSITIVE_INFINITY) continue;
+            
+            //pop parabolas that are hidden by the parabola rooted at q
+            float s = 0;
+            while (k >= 0) {
+                int p = v[k];
+                s = ((f[q] + q * q) - (f[p] + p * p)) / (2f * (q - p));
+                if (s > z[k]) break;
+                k--;
             }
+            k++;
+            v[k] = q;
+            z[k] = k == 0 ? Float.NEGATIVE_INFINITY : s;
+            z[k + 1] = Float.POSITIVE_INFINITY;
         }
         
-        //bottom edge
-        for (int x = border; x < pixmap.getWidth() - border; x++) {
-            for (int y = pixmap.getHeight() - 1 - border; y > border; y--) {
-                temp.set(pixmap.getPixel(x, y));
-                if (temp.a > 0) {
-                    sumR += temp.r;
-                    sumG += temp.g;
-                    sumB += temp.b;
-                    count++;
-                    break;
-                }
+        if (k == -1) {
+            Arrays.fill(d, Float.POSITIVE_INFINITY);
+            return d;
+        }
+        
+        for (int q = 0, j = 0; q < n; q++) {
+            while (z[j + 1] < q) j++;
+            int p = v[j];
+            d[q] = (q - p) * (q - p) + f[p];
+        }
+        return d;
+    }
+
+    /**
+     * Runs the runnable on the GL thread and waits for it to complete. If this is already the GL thread, the runnable
+     * is run immediately. Exceptions thrown by the runnable are rethrown on the calling thread.
+     * @param runnable
+     */
+    public static void runOnGLThread(Runnable runnable) {
+        if (GLFW.glfwGetCurrentContext() != 0) {
+            runnable.run();
+            return;
+        }
+        
+        var latch = new CountDownLatch(1);
+        var exception = new RuntimeException[1];
+        Gdx.app.postRunnable(() -> {
+            try {
+                runnable.run();
+            } catch (RuntimeException e) {
+                exception[0] = e;
+            } finally {
+                latch.countDown();
             }
+        });
+        
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GdxRuntimeException(e);
         }
+        if (exception[0] != null) throw exception[0];
+    }
+    
+    /**
+     * Writes the bytes to a temporary file next to the target, forces them to disk and then renames the temporary file
+     * over the target. The target either keeps its previous contents or has the new contents, even if the application
+     * crashes while writing.
+     * @param file
+     * @param bytes
+     * @throws IOException
+     */
+    public static void writeAtomically(FileHandle file, byte[] bytes) throws IOException {
+        var target = file.file().getAbsoluteFile().toPath();
+        var temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.createDirectories(target.getParent());
         
-        if (count == 0) {
-            return new Color(Color.BLACK);
-        } else {
-            return new Color(sumR / count, sumG / count, sumB / count, 1.0f);
+        try {
+            try (var output = new FileOutputStream(temp.toFile())) {
+                output.write(bytes);
+                output.getFD().sync();
+            }
+            
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
         }
     }
     
@@ -365,6 +599,25 @@ public class Utils {
         bos.close();
     }
     
+    /**
+     * Calculates a CRC32 checksum of the file contents. Returns 0 if the file can not be read.
+     * @param file
+     * @return
+     */
+    public static long fileChecksum(FileHandle file) {
+        var crc = new CRC32();
+        byte[] bytesIn = new byte[BUFFER_SIZE];
+        try (var is = file.read()) {
+            int read;
+            while ((read = is.read(bytesIn)) != -1) {
+                crc.update(bytesIn, 0, read);
+            }
+        } catch (IOException | GdxRuntimeException e) {
+            return 0;
+        }
+        return crc.getValue();
+    }
+    
     public static Pixmap textureRegionToPixmap(TextureRegion textureRegion) {
         var texture = textureRegion.getTexture();
         if (!texture.getTextureData().isPrepared()) {
@@ -480,18 +733,18 @@ public class Utils {
     
     public static PatchDefinition calculatePatches(Pixmap pixmap) {
         var patchDefinition = new PatchDefinition();
+        var rgba = toRGBA8888(pixmap);
+        var pixels = rgba.getPixels().duplicate().order(ByteOrder.BIG_ENDIAN);
+        int width = rgba.getWidth();
+        int height = rgba.getHeight();
     
-        var startX = pixmap.getWidth() / 2;
-        var color = new Color();
-        var colorPrevious = new Color();
+        var startX = width / 2;
         var foundBreak = false;
     
         for (var x = startX - 1; x >= 0 && !foundBreak; x--) {
-            for (var y = 0; y < pixmap.getHeight(); y++) {
-                color.set(pixmap.getPixel(x, y));
-                colorPrevious.set(pixmap.getPixel(x + 1, y));
-            
-                if (!color.equals(colorPrevious)) {
+            for (var y = 0; y < height; y++) {
+                int index = (y * width + x) * 4;
+                if (pixels.getInt(index) != pixels.getInt(index + 4)) {
                     patchDefinition.left = x + 1;
                     foundBreak = true;
                     break;
@@ -503,13 +756,11 @@ public class Utils {
         }
         
         foundBreak = false;
-        for (var x = startX + 1; x < pixmap.getWidth() && !foundBreak; x++) {
-            for (var y = 0; y < pixmap.getHeight(); y++) {
-                color.set(pixmap.getPixel(x, y));
-                colorPrevious.set(pixmap.getPixel(x - 1, y));
-            
-                if (!color.equals(colorPrevious)) {
-                    patchDefinition.right = pixmap.getWidth() - x;
+        for (var x = startX + 1; x < width && !foundBreak; x++) {
+            for (var y = 0; y < height; y++) {
+                int index = (y * width + x) * 4;
+                if (pixels.getInt(index) != pixels.getInt(index - 4)) {
+                    patchDefinition.right = width - x;
                     foundBreak = true;
                     break;
                 }
@@ -519,14 +770,12 @@ public class Utils {
             patchDefinition.right = 0;
         }
     
-        var startY = pixmap.getHeight() / 2;
+        var startY = height / 2;
         foundBreak = false;
         for (var y = startY - 1; y >= 0 && !foundBreak; y--) {
-            for (var x = 0; x < pixmap.getWidth(); x++) {
-                color.set(pixmap.getPixel(x, y));
-                colorPrevious.set(pixmap.getPixel(x, y + 1));
-            
-                if (!color.equals(colorPrevious)) {
+            for (var x = 0; x < width; x++) {
+                int index = (y * width + x) * 4;
+                if (pixels.getInt(index) != pixels.getInt(index + width * 4)) {
                     patchDefinition.top = y + 1;
                     foundBreak = true;
                     break;
@@ -538,13 +787,11 @@ public class Utils {
         }
     
         foundBreak = false;
-        for (var y = startY + 1; y < pixmap.getHeight() && !foundBreak; y++) {
-            for (var x = 0; x < pixmap.getWidth(); x++) {
-                color.set(pixmap.getPixel(x, y));
-                colorPrevious.set(pixmap.getPixel(x, y - 1));
-            
-                if (!color.equals(colorPrevious)) {
-                    patchDefinition.bottom = pixmap.getHeight() - y;
+        for (var y = startY + 1; y < height && !foundBreak; y++) {
+            for (var x = 0; x < width; x++) {
+                int index = (y * width + x) * 4;
+                if (pixels.getInt(index) != pixels.getInt(index - width * 4)) {
+                    patchDefinition.bottom = height - y;
                     foundBreak = true;
                     break;
                 }
@@ -553,6 +800,8 @@ public class Utils {
         if (!foundBreak) {
             patchDefinition.bottom = 0;
         }
+        
+        if (rgba != pixmap) rgba.dispose();
         return patchDefinition;
     }
     